@@ -0,0 +1,119 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쿼리 하나와 후보 문서 batchSize개의 코사인 유사도 계산 비용 비교.
+ *
+ * - legacyBoxed: 기존 List&lt;Double&gt; 구현 (매 호출마다 두 노름을 다시 계산)
+ * - scalarNormalized / simdNormalized: 미리 정규화한 float[]의 내적
+ *
+ * 실행: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CosineSimilarityBenchmark {
+
+    @Param({"1024", "4096"})
+    private int dimensions;
+
+    @Param({"20", "100", "1000", "10000"})
+    private int batchSize;
+
+    private List<Double> boxedQuery;
+    private List<List<Double>> boxedDocuments;
+    private float[] query;
+    private float[][] documents;
+
+    private final DotProduct scalar = new ScalarDotProduct();
+    private final DotProduct simd = new SimdDotProduct();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Embedding queryEmbedding = randomEmbedding(random);
+        boxedQuery = toList(queryEmbedding.values());
+        query = queryEmbedding.normalized();
+
+        boxedDocuments = new ArrayList<>(batchSize);
+        documents = new float[batchSize][];
+        for (int i = 0; i < batchSize; i++) {
+            Embedding document = randomEmbedding(random);
+            boxedDocuments.add(toList(document.values()));
+            documents[i] = document.normalized();
+        }
+    }
+
+    @Benchmark
+    public void legacyBoxed(Blackhole blackhole) {
+        for (List<Double> document : boxedDocuments) {
+            blackhole.consume(legacyCosineSimilarity(boxedQuery, document));
+        }
+    }
+
+    @Benchmark
+    public void scalarNormalized(Blackhole blackhole) {
+        for (float[] document : documents) {
+            blackhole.consume(scalar.dot(query, document));
+        }
+    }
+
+    @Benchmark
+    public void simdNormalized(Blackhole blackhole) {
+        for (float[] document : documents) {
+            blackhole.consume(simd.dot(query, document));
+        }
+    }
+
+    /**
+     * 변경 전 SimilarityService.calculateCosineSimilarity 구현.
+     */
+    private static double legacyCosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+
+        for (int i = 0; i < vectorA.size(); i++) {
+            dotProduct += vectorA.get(i) * vectorB.get(i);
+            normA += Math.pow(vectorA.get(i), 2);
+            normB += Math.pow(vectorB.get(i), 2);
+        }
+
+        if (normA == 0.0 || normB == 0.0) {
+            return 0.0;
+        }
+
+        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private Embedding randomEmbedding(Random random) {
+        float[] values = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            values[i] = (float) random.nextGaussian();
+        }
+        return Embedding.of(values);
+    }
+
+    private static List<Double> toList(float[] values) {
+        List<Double> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add((double) value);
+        }
+        return list;
+    }
+}
@@ -1,7 +1,9 @@
 package com.flutter.DataPreprocessingService.config;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -33,8 +35,11 @@ public class ElasticsearchConfig {
     @Value("${spring.elasticsearch.uris}")
     private String elasticSearchUris;
 
+    /**
+     * 동기/비동기 클라이언트가 함께 쓰는 전송 계층. 비동기 클라이언트도 같은 RestClient(논블로킹 I/O 리액터)를 사용한다.
+     */
     @Bean
-    public ElasticsearchClient elasticsearchClient() throws Exception {
+    public ElasticsearchTransport elasticsearchTransport() throws Exception {
         BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username, password));
 
@@ -54,12 +59,22 @@ public class ElasticsearchConfig {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
 
-        RestClientTransport transport = new RestClientTransport(
-                restClient, new JacksonJsonpMapper(objectMapper));
+        return new RestClientTransport(restClient, new JacksonJsonpMapper(objectMapper));
+    }
 
+    @Bean
+    public ElasticsearchClient elasticsearchClient(ElasticsearchTransport transport) {
         return new ElasticsearchClient(transport);
     }
 
+    /**
+     * 응답을 CompletableFuture로 돌려주는 클라이언트. 응답을 기다리는 동안 호출 스레드를 점유하지 않는다.
+     */
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchTransport transport) {
+        return new ElasticsearchAsyncClient(transport);
+    }
+
     private SSLContext createSSLContext() throws Exception {
         TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
         trustManagerFactory.init((KeyStore) null);
@@ -1,7 +1,12 @@
 package com.flutter.DataPreprocessingService.controller.kakao;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
 import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
+import com.flutter.DataPreprocessingService.service.kakao.KakaoCallbackService;
 import com.flutter.DataPreprocessingService.service.prompt.CreatePrompt;
+import com.flutter.DataPreprocessingService.service.rag.SingleFlight;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
 import com.flutter.DataPreprocessingService.service.similarity.SimilarityService;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchDocumentSearchService;
 import lombok.RequiredArgsConstructor;
@@ -27,10 +32,14 @@ public class KakaoReRankingController {
     private final SimilarityService similarityService;
     private final EmbeddingService embeddingService;
     private final CreatePrompt createPrompt;
+    private final SingleFlight singleFlight;
+    private final KakaoCallbackService kakaoCallbackService;
 
     /**
      * 카카오톡 채널 스킬 서버로부터 요청을 받고 처리합니다.
      * 사용자의 utterance에 대한 응답을 반환합니다.
+     * 요청에 callbackUrl이 있으면(콜백이 켜진 블록) useCallback 응답을 바로 반환하고, 답변은 작업 풀에서 만들어 callbackUrl로 전송합니다.
+     * 작업 큐가 가득 차 있으면 동기로 처리하지 않고 바쁨 안내를 바로 반환합니다.
      *
      * @param request 카카오톡 채널에서 들어온 요청
      * @return 카카오톡 응답 형식으로 리랭킹된 검색 결과를 반환
@@ -44,40 +53,18 @@ public class KakaoReRankingController {
             return buildKakaoResponse("검색어를 입력해주세요.");
         }
 
-        try {
-            // 1차 검색 수행
-            List<Map<String, Object>> topKDocuments = searchService.searchDocumentsTopKByKeyword(query, 20);
-
-            // 쿼리 임베딩 생성
-            List<Double> queryEmbedding = embeddingService.getQueryEmbedding(query);
-
-            // 문서 임베딩 생성 및 리랭킹 수행
-            List<Map<String, Object>> documentsWithEmbeddings = topKDocuments.stream().map(doc -> {
-                String content = (String) doc.get("chunk");
-                if (content == null || content.trim().isEmpty()) {
-                    throw new IllegalStateException("문서 내용이 비어 있습니다.");
-                }
-
-                List<Double> passageEmbedding = embeddingService.getPassageEmbedding(content);
-                doc.put("embedding", passageEmbedding);
-                return doc;
-            }).collect(Collectors.toList());
-
-            // 리랭킹 수행
-            List<Map<String, Object>> reRankedDocuments = similarityService.rankDocumentsBySimilarity(queryEmbedding, documentsWithEmbeddings);
-
-            // 리랭킹된 결과에서 상위 5개 선택
-            List<Map<String, Object>> top5Documents = reRankedDocuments.stream().limit(5).collect(Collectors.toList());
-
-            // 문서 내용 추출
-            String responseText = top5Documents.stream()
-                    .map(doc -> (String) doc.get("chunk"))
-                    .findFirst()
-                    .orElse("결과가 없습니다.");
+        // 스킬 서버의 5초 응답 제한을 넘기지 않도록 콜백 모드로 처리 (callbackUrl이 없는 블록만 아래의 동기 처리로 진행)
+        String callbackUrl = extractCallbackUrlFromRequest(request);
+        if (kakaoCallbackService.usesCallback(callbackUrl)) {
+            if (kakaoCallbackService.submit(callbackUrl, () -> singleFlight.execute("kakao", query, null, () -> answer(query)))) {
+                return ResponseEntity.ok(kakaoCallbackService.callbackAcknowledgement());
+            }
+            return ResponseEntity.ok(kakaoCallbackService.busyResponse());
+        }
 
-            // LLM API 호출 및 응답 생성
-            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, top5Documents);
-            String llmResponse = llmResponseMap.getOrDefault("content", "응답 생성 실패").toString();
+        try {
+            // 같은 질문이 동시에 들어오면 검색과 LLM 호출을 한 번만 수행하고 결과를 함께 받는다
+            String llmResponse = singleFlight.execute("kakao", query, null, () -> answer(query));
 
             // 카카오톡 응답 형식에 맞춰 결과 반환
             return buildKakaoResponse(llmResponse);
@@ -88,6 +75,34 @@ public class KakaoReRankingController {
         }
     }
 
+    /**
+     * 1차 검색, 리랭킹, LLM 호출을 수행하여 사용자에게 보낼 답변을 만듭니다.
+     *
+     * @param query 사용자 질문
+     * @return 답변 텍스트
+     */
+    private String answer(String query) {
+        // 1차 검색 수행
+        List<ChunkHit> topKDocuments = searchService.searchDocumentsTopKByKeyword(query, 20);
+
+        // 쿼리 임베딩 생성
+        Embedding queryEmbedding = embeddingService.getQueryEmbedding(query);
+
+        // 청크 임베딩은 벡터 세그먼트와 캐시에서 찾고 없는 청크만 모아서 배치로 생성
+        List<Embedding> passageEmbeddings = embeddingService.resolvePassageEmbeddings(topKDocuments);
+
+        // 리랭킹 수행: 유사도 상위 5개만 선택 (검색 결과 문서는 변경하지 않음)
+        List<ScoredCandidate> reRankedCandidates = similarityService.topK(queryEmbedding, passageEmbeddings, 5);
+        List<ChunkHit> top5Documents = reRankedCandidates.stream()
+                .map(candidate -> topKDocuments.get(candidate.index()))
+                .collect(Collectors.toList());
+
+        // LLM API 호출 및 응답 생성
+        Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, null, queryEmbedding, top5Documents);
+        String answer = CreatePrompt.answerTextOf(llmResponseMap);
+        return answer != null ? answer : "응답 생성 실패";
+    }
+
     /**
      * 카카오톡 채널 요청에서 utterance를 추출하는 메서드
      *
@@ -106,6 +121,19 @@ public class KakaoReRankingController {
         }
     }
 
+    /**
+     * 카카오톡 채널 요청에서 callbackUrl을 추출하는 메서드 (콜백이 꺼진 블록이면 null)
+     *
+     * @param request 사용자가 보낸 요청
+     * @return 추출된 callbackUrl
+     */
+    private String extractCallbackUrlFromRequest(Map<String, Object> request) {
+        if (request.get("userRequest") instanceof Map<?, ?> userRequest && userRequest.get("callbackUrl") instanceof String callbackUrl) {
+            return callbackUrl;
+        }
+        return null;
+    }
+
     /**
      * 카카오톡 채널 응답 형식에 맞춰 응답을 생성하는 메서드
      *
@@ -113,15 +141,6 @@ public class KakaoReRankingController {
      * @return 규격화된 카카오톡 응답
      */
     private ResponseEntity<Map<String, Object>> buildKakaoResponse(String text) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("version", "2.0");
-
-        Map<String, Object> template = new HashMap<>();
-        template.put("outputs", Arrays.asList(Map.of(
-                "simpleText", Map.of("text", text)
-        )));
-
-        response.put("template", template);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(KakaoCallbackService.simpleTextResponse(text));
     }
 }
@@ -0,0 +1,58 @@
+package com.flutter.DataPreprocessingService.controller.monitoring;
+
+import com.flutter.DataPreprocessingService.service.embedding.EmbeddingCache;
+import com.flutter.DataPreprocessingService.service.kakao.KakaoCallbackService;
+import com.flutter.DataPreprocessingService.service.pdf_parse.ParseResultCache;
+import com.flutter.DataPreprocessingService.service.prompt.SemanticAnswerCache;
+import com.flutter.DataPreprocessingService.service.rag.SingleFlight;
+import com.flutter.DataPreprocessingService.service.search.SearchResultCache;
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
+import com.flutter.DataPreprocessingService.service.vector.VectorIndexService;
+import com.flutter.DataPreprocessingService.service.vector.VectorSegmentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 애플리케이션 내부 캐시의 적중/미스/제거 통계와 동시 요청 병합, 카카오 콜백 처리 통계를 조회하는 컨트롤러.
+ */
+@RestController
+@RequestMapping("/api/monitoring")
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+    private final ParseResultCache parseResultCache;
+    private final EmbeddingCache embeddingCache;
+    private final VectorIndexService vectorIndexService;
+    private final VectorSegmentStore vectorSegmentStore;
+    private final ProductShardCache productShardCache;
+    private final SearchResultCache searchResultCache;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final SingleFlight singleFlight;
+    private final KakaoCallbackService kakaoCallbackService;
+
+    /**
+     * 캐시별 통계를 반환한다.
+     *
+     * @return 캐시 이름별 통계
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("parseResult", parseResultCache.stats());
+        stats.put("embedding", embeddingCache.stats());
+        stats.put("vectorIndex", vectorIndexService.stats());
+        stats.put("vectorSegments", vectorSegmentStore.stats());
+        stats.put("productShards", productShardCache.stats());
+        stats.put("searchResult", searchResultCache.stats());
+        stats.put("answer", semanticAnswerCache.stats());
+        stats.put("singleFlight", singleFlight.stats());
+        stats.put("kakaoCallback", kakaoCallbackService.stats());
+        return ResponseEntity.ok(stats);
+    }
+}
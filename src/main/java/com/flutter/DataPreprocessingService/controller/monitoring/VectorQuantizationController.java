@@ -0,0 +1,41 @@
+package com.flutter.DataPreprocessingService.controller.monitoring;
+
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 벡터 int8 양자화의 정확도를 점검하는 컨트롤러.
+ */
+@RestController
+@RequestMapping("/api/monitoring/quantization")
+@RequiredArgsConstructor
+public class VectorQuantizationController {
+
+    private final ProductShardCache productShardCache;
+
+    /**
+     * 상품의 청크를 쿼리로 사용하여 양자화 검색의 recall@k를 float 전수 검색과 비교한다.
+     *
+     * @param productName 점검할 상품명
+     * @param k 비교할 결과 수 (1 이상)
+     * @param samples 쿼리로 사용할 청크 수 (1 이상)
+     * @return recall과 메모리 크기 비교 결과
+     */
+    @GetMapping("/recall")
+    public ResponseEntity<Map<String, Object>> checkRecall(@RequestParam("productName") String productName,
+                                                           @RequestParam(value = "k", defaultValue = "10") int k,
+                                                           @RequestParam(value = "samples", defaultValue = "100") int samples) {
+        // 입력 유효성 검사
+        if (k < 1 || samples < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "k와 samples는 1 이상이어야 합니다."));
+        }
+        return ResponseEntity.ok(productShardCache.checkQuantizationRecall(productName, k, samples));
+    }
+}
@@ -1,9 +1,14 @@
 package com.flutter.DataPreprocessingService.controller.rerank;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
 import com.flutter.DataPreprocessingService.service.search.EnhancedSearchService;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
 import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
 import com.flutter.DataPreprocessingService.service.prompt.CreatePrompt;
+import com.flutter.DataPreprocessingService.service.rag.SingleFlight;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
 import com.flutter.DataPreprocessingService.service.similarity.SimilarityService;
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +38,8 @@ public class EnhancedSearchController {
     private final CreatePrompt createPrompt;
     private final SimilarityService similarityService;
     private final EmbeddingService embeddingService;
+    private final ProductShardCache productShardCache;
+    private final SingleFlight singleFlight;
 
     /**
      * 기능 1: 1차 검색 수행 후 LLM API 호출하여 응답 반환
@@ -45,10 +52,13 @@ public class EnhancedSearchController {
     public ResponseEntity<Map<String, Object>> simpleSearch(
             @RequestParam("query") String query,
             @RequestParam("productName") String productName) {
+        return singleFlight.execute("enhanced-simple", query, productName, () -> processSimpleSearch(query, productName));
+    }
 
+    private ResponseEntity<Map<String, Object>> processSimpleSearch(String query, String productName) {
         try {
             // 1차 검색 수행
-            List<Map<String, Object>> documents = searchService.searchDocumentsByQueryAndProductName(query, productName, 15);
+            List<ChunkHit> documents = searchService.searchDocumentsByQueryAndProductName(query, productName, 15);
 
             // LLM API 호출
             Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, documents);
@@ -80,43 +90,30 @@ public class EnhancedSearchController {
     public ResponseEntity<Map<String, Object>> rerankedSearch(
             @RequestParam("query") String query,
             @RequestParam("productName") String productName) {
+        // 같은 질문이 동시에 들어오면 검색과 LLM 호출을 한 번만 수행하고 결과를 함께 받는다
+        return singleFlight.execute("enhanced-reranked", query, productName, () -> processRerankedSearch(query, productName));
+    }
 
+    private ResponseEntity<Map<String, Object>> processRerankedSearch(String query, String productName) {
         try {
-            // 1차 검색 수행
-            List<Map<String, Object>> documents = searchService.searchDocumentsByQueryAndProductName(query, productName, 15);
-
             // 쿼리 임베딩 생성
-            List<Double> queryEmbedding = embeddingService.getQueryEmbedding(query);
-
-            // 문서 임베딩 생성 및 리랭킹 수행
-            List<Map<String, Object>> documentsWithEmbeddings = documents.stream().map(doc -> {
-                String content = (String) doc.get("chunk");
-                List<Double> passageEmbedding = embeddingService.getPassageEmbedding(content);
-                doc.put("embedding", passageEmbedding);
-                return doc;
-            }).toList();
+            Embedding queryEmbedding = embeddingService.getQueryEmbedding(query);
 
-            // 리랭킹 수행
-            List<Map<String, Object>> reRankedDocuments = similarityService.rankDocumentsBySimilarity(queryEmbedding, documentsWithEmbeddings);
-
-            // 리랭킹된 결과에서 상위 10개만 선택
-            List<Map<String, Object>> top5Documents = reRankedDocuments.stream().limit(10).collect(Collectors.toList());
-
-
-            // 원본 문서 정보 추출 (임베딩된 결과에서 디코딩)
-            List<Map<String, Object>> decodedDocuments = decodeDocuments(top5Documents);
+            // 상주 중인 상품 샤드가 있으면 Elasticsearch 없이 샤드 안에서 전수 검색, 없으면 1차 검색 후 리랭킹
+            List<ChunkHit> top5Documents = productShardCache.search(productName, queryEmbedding, 10)
+                    .orElseGet(() -> searchAndReRank(query, productName, queryEmbedding));
 
             // LLM API 호출
-            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, decodedDocuments);
+            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, productName, queryEmbedding, top5Documents);
             String llmResponse = llmResponseMap.toString(); // LLM API 응답 변환
 
             // 응답 생성
             Map<String, Object> result = new HashMap<>();
-            result.put("many", decodedDocuments.size());
+            result.put("many", top5Documents.size());
             result.put("query", query);
             result.put("productName", productName);
             result.put("llmResponse", llmResponse);
-            result.put("documents", decodedDocuments);
+            result.put("documents", top5Documents);
 
             return ResponseEntity.ok(result);
 
@@ -127,23 +124,19 @@ public class EnhancedSearchController {
     }
 
     /**
-     * 리랭킹된 문서에서 원본 데이터를 디코딩하여 추출합니다.
-     *
-     * @param documents 리랭킹된 문서 목록
-     * @return 디코딩된 문서 정보 목록
+     * Elasticsearch 1차 검색 결과를 임베딩 유사도로 리랭킹하여 상위 10개를 반환합니다.
      */
-    private List<Map<String, Object>> decodeDocuments(List<Map<String, Object>> documents) {
-        return documents.stream().map(doc -> {
-            // 각 문서의 원본 필드들을 추출
-            Map<String, Object> decodedDoc = new HashMap<>();
-            decodedDoc.put("productName", doc.get("productName"));
-            decodedDoc.put("saleStartDate", doc.get("saleStartDate"));
-            decodedDoc.put("saleEndDate", doc.get("saleEndDate"));
-            decodedDoc.put("uploadDate", doc.get("uploadDate"));
-            decodedDoc.put("chunk", doc.get("chunk"));
-            decodedDoc.put("channel", doc.get("channel"));
-            decodedDoc.put("fileName", doc.get("fileName"));
-            return decodedDoc;
-        }).collect(Collectors.toList());
+    private List<ChunkHit> searchAndReRank(String query, String productName, Embedding queryEmbedding) {
+        // 1차 검색 수행
+        List<ChunkHit> documents = searchService.searchDocumentsByQueryAndProductName(query, productName, 15);
+
+        // 청크 임베딩은 벡터 세그먼트와 캐시에서 찾고 없는 청크만 모아서 배치로 생성
+        List<Embedding> passageEmbeddings = embeddingService.resolvePassageEmbeddings(documents);
+
+        // 리랭킹 수행: 유사도 상위 10개만 선택 (검색 결과 문서는 변경하지 않음)
+        List<ScoredCandidate> reRankedCandidates = similarityService.topK(queryEmbedding, passageEmbeddings, 10);
+        return reRankedCandidates.stream()
+                .map(candidate -> documents.get(candidate.index()))
+                .collect(Collectors.toList());
     }
 }
@@ -1,11 +1,15 @@
 package com.flutter.DataPreprocessingService.controller.rerank;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
 import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
 import com.flutter.DataPreprocessingService.service.prompt.CreatePrompt;
 import com.flutter.DataPreprocessingService.service.prompt.StreamingPromptService;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchDocumentSearchService;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchProductSearchService;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
 import com.flutter.DataPreprocessingService.service.similarity.SimilarityService;
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +41,7 @@ public class ProductSearchReRankingController {
     private final EmbeddingService embeddingService;
     private final CreatePrompt createPrompt;
     private final ElasticsearchProductSearchService elasticsearchProductSearchService;
+    private final ProductShardCache productShardCache;
 
     /**
      * 리랭킹된 문서 검색 결과를 반환하고 LLM API를 호출하여 응답을 받습니다.
@@ -52,49 +57,24 @@ public class ProductSearchReRankingController {
         }
 
         try {
-            // 1차 검색 수행
-            List<Map<String, Object>> topKDocuments = elasticsearchProductSearchService.searchDocumentsByProductName(query, productName);
-            for (int i=0; i<topKDocuments.size();i++){
-                logger.info("{} 번째 결과: {}",i+1, topKDocuments.get(i));
-
-            }
-
             // 쿼리 임베딩 생성
-            List<Double> queryEmbedding = embeddingService.getQueryEmbedding(query);
-
-            // 문서 임베딩 생성 및 리랭킹 수행
-            List<Map<String, Object>> documentsWithEmbeddings = topKDocuments.stream().map(doc -> {
-                String content = (String) doc.get("chunk");  // chunk 필드에서 데이터 추출
-                if (content == null || content.trim().isEmpty()) {
-                    throw new IllegalStateException("문서 내용이 비어 있습니다.");
-                }
-
-                List<Double> passageEmbedding = embeddingService.getPassageEmbedding(content);
-                doc.put("embedding", passageEmbedding);
-                return doc;
-            }).collect(Collectors.toList());
-
-            // 리랭킹 수행
-            List<Map<String, Object>> reRankedDocuments = similarityService.rankDocumentsBySimilarity(queryEmbedding, documentsWithEmbeddings);
-
-            // 리랭킹된 결과에서 상위 5개만 선택
-            List<Map<String, Object>> top5Documents = reRankedDocuments.stream().limit(10).collect(Collectors.toList());
+            Embedding queryEmbedding = embeddingService.getQueryEmbedding(query);
 
-            // 원본 문서 정보 추출 (임베딩된 결과에서 디코딩)
-            List<Map<String, Object>> decodedDocuments = decodeDocuments(top5Documents);
+            // 상주 중인 상품 샤드가 있으면 Elasticsearch 없이 샤드 안에서 전수 검색, 없으면 1차 검색 후 리랭킹
+            List<ChunkHit> top5Documents = productShardCache.search(productName, queryEmbedding, 10)
+                    .orElseGet(() -> searchAndReRank(query, productName, queryEmbedding));
 
-            // 디코딩된 결과를 로그로 출력
-            logger.info("Decoded Documents for LLM Input: {}", decodedDocuments);
+            logger.info("Documents for LLM Input: {}", top5Documents);
 
             // LLM API 호출 준비 및 호출
-            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, decodedDocuments);
+            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, productName, queryEmbedding, top5Documents);
             String llmResponse = llmResponseMap.toString();  // Map을 String으로 변환
 
             // 응답 결과 생성
             Map<String, Object> result = new HashMap<>();
             result.put("query", query);
             result.put("llmResponse", llmResponse);
-            result.put("contents", decodedDocuments);
+            result.put("contents", top5Documents);
 
             // 응답 반환
             return ResponseEntity.ok(result);
@@ -105,23 +85,23 @@ public class ProductSearchReRankingController {
     }
 
     /**
-     * 리랭킹된 문서에서 원본 데이터를 디코딩하여 추출합니다.
-     *
-     * @param documents 리랭킹된 문서 목록
-     * @return 디코딩된 문서 정보 목록
+     * Elasticsearch 1차 검색 결과를 임베딩 유사도로 리랭킹하여 상위 10개를 반환합니다.
      */
-    private List<Map<String, Object>> decodeDocuments(List<Map<String, Object>> documents) {
-        return documents.stream().map(doc -> {
-            // 각 문서의 원본 필드들을 추출
-            Map<String, Object> decodedDoc = new HashMap<>();
-            decodedDoc.put("productName", doc.get("productName"));
-            decodedDoc.put("saleStartDate", doc.get("saleStartDate"));
-            decodedDoc.put("saleEndDate", doc.get("saleEndDate"));
-            decodedDoc.put("uploadDate", doc.get("uploadDate"));
-            decodedDoc.put("chunk", doc.get("chunk"));
-            decodedDoc.put("channel", doc.get("channel"));
-            decodedDoc.put("fileName", doc.get("fileName"));
-            return decodedDoc;
-        }).collect(Collectors.toList());
+    private List<ChunkHit> searchAndReRank(String query, String productName, Embedding queryEmbedding) {
+        // 1차 검색 수행
+        List<ChunkHit> topKDocuments = elasticsearchProductSearchService.searchDocumentsByProductName(query, productName);
+        for (int i=0; i<topKDocuments.size();i++){
+            logger.info("{} 번째 결과: {}",i+1, topKDocuments.get(i).chunk());
+
+        }
+
+        // 청크 임베딩은 벡터 세그먼트와 캐시에서 찾고 없는 청크만 모아서 배치로 생성
+        List<Embedding> passageEmbeddings = embeddingService.resolvePassageEmbeddings(topKDocuments);
+
+        // 리랭킹 수행: 유사도 상위 10개만 선택 (검색 결과 문서는 변경하지 않음)
+        List<ScoredCandidate> reRankedCandidates = similarityService.topK(queryEmbedding, passageEmbeddings, 10);
+        return reRankedCandidates.stream()
+                .map(candidate -> topKDocuments.get(candidate.index()))
+                .collect(Collectors.toList());
     }
 }
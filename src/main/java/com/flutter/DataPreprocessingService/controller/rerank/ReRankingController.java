@@ -1,9 +1,13 @@
 package com.flutter.DataPreprocessingService.controller.rerank;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
 import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
 import com.flutter.DataPreprocessingService.service.prompt.CreatePrompt;
 import com.flutter.DataPreprocessingService.service.prompt.StreamingPromptService;
+import com.flutter.DataPreprocessingService.service.rag.SingleFlight;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchDocumentSearchService;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
 import com.flutter.DataPreprocessingService.service.similarity.SimilarityService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -30,16 +34,21 @@ public class ReRankingController {
     private final EmbeddingService embeddingService;
     private final CreatePrompt createPrompt;
     private final StreamingPromptService streamingPromptService;
+    private final SingleFlight singleFlight;
 
     /**
      * GET 요청을 처리하여 리랭킹된 문서 검색 결과와 LLM API 응답을 반환합니다.
      *
      * @param query 검색 쿼리
+     * @param strategy 1차 검색 방식 (keyword: BM25 상위 20개, hybrid: BM25 + 벡터 RRF 상위 10개)
      * @return 리랭킹된 문서 목록과 LLM API 응답
      */
     @GetMapping("/top-k")
-    public ResponseEntity<Map<String, Object>> getReRankedResults(@RequestParam("query") String query) {
-        return processReRanking(query);
+    public ResponseEntity<Map<String, Object>> getReRankedResults(@RequestParam("query") String query,
+                                                                  @RequestParam(value = "strategy", defaultValue = "keyword") String strategy) {
+        boolean hybrid = "hybrid".equalsIgnoreCase(strategy);
+        // 같은 질문이 동시에 들어오면 검색과 LLM 호출을 한 번만 수행하고 결과를 함께 받는다
+        return singleFlight.execute(hybrid ? "rerank-hybrid" : "rerank", query, null, () -> processReRanking(query, hybrid));
     }
 
 
@@ -47,52 +56,42 @@ public class ReRankingController {
      * 리랭킹 로직을 수행하고 결과를 반환하는 메서드
      *
      * @param query 검색 쿼리
+     * @param hybrid 하이브리드 검색 사용 여부 (재현율이 높아 더 적은 후보로 리랭킹하고 LLM에 5개만 전달)
      * @return 리랭킹된 문서 목록과 LLM API 응답
      */
-    private ResponseEntity<Map<String, Object>> processReRanking(String query) {
+    private ResponseEntity<Map<String, Object>> processReRanking(String query, boolean hybrid) {
         try {
             // 1차 검색 수행
-            List<Map<String, Object>> topKDocuments = searchService.searchDocumentsTopKByKeyword(query, 20);
+            List<ChunkHit> topKDocuments = hybrid
+                    ? searchService.searchDocumentsTopKByHybrid(query, 10)
+                    : searchService.searchDocumentsTopKByKeyword(query, 20);
             for (int i = 0; i < topKDocuments.size(); i++) {
-                logger.info("{} 번째 결과: {}", i + 1, topKDocuments.get(i));
+                logger.info("{} 번째 결과: {}", i + 1, topKDocuments.get(i).chunk());
             }
 
             // 쿼리 임베딩 생성
-            List<Double> queryEmbedding = embeddingService.getQueryEmbedding(query);
+            Embedding queryEmbedding = embeddingService.getQueryEmbedding(query);
 
-            // 문서 임베딩 생성 및 리랭킹 수행
-            List<Map<String, Object>> documentsWithEmbeddings = topKDocuments.stream().map(doc -> {
-                String content = (String) doc.get("chunk");  // chunk 필드에서 데이터 추출
-                if (content == null || content.trim().isEmpty()) {
-                    throw new IllegalStateException("문서 내용이 비어 있습니다.");
-                }
+            // 청크 임베딩은 벡터 세그먼트와 캐시에서 찾고 없는 청크만 모아서 배치로 생성
+            List<Embedding> passageEmbeddings = embeddingService.resolvePassageEmbeddings(topKDocuments);
 
-                List<Double> passageEmbedding = embeddingService.getPassageEmbedding(content);
-                doc.put("embedding", passageEmbedding);
-                return doc;
-            }).collect(Collectors.toList());
+            // 리랭킹 수행: 유사도 상위 문서만 선택 (검색 결과 문서는 변경하지 않음)
+            List<ScoredCandidate> reRankedCandidates = similarityService.topK(queryEmbedding, passageEmbeddings, hybrid ? 5 : 10);
+            List<ChunkHit> top5Documents = reRankedCandidates.stream()
+                    .map(candidate -> topKDocuments.get(candidate.index()))
+                    .collect(Collectors.toList());
 
-            // 리랭킹 수행
-            List<Map<String, Object>> reRankedDocuments = similarityService.rankDocumentsBySimilarity(queryEmbedding, documentsWithEmbeddings);
-
-            // 리랭킹된 결과에서 상위 5개만 선택
-            List<Map<String, Object>> top5Documents = reRankedDocuments.stream().limit(10).collect(Collectors.toList());
-
-            // 원본 문서 정보 추출 (임베딩된 결과에서 디코딩)
-            List<Map<String, Object>> decodedDocuments = decodeDocuments(top5Documents);
-
-            // 디코딩된 결과를 로그로 출력
-            logger.info("Decoded Documents for LLM Input: {}", decodedDocuments);
+            logger.info("Documents for LLM Input: {}", top5Documents);
 
             // LLM API 호출 준비 및 호출
-            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, decodedDocuments);
+            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, null, queryEmbedding, top5Documents);
             String llmResponse = llmResponseMap.toString();  // Map을 String으로 변환
 
             // 응답 결과 생성
             Map<String, Object> result = new HashMap<>();
             result.put("query", query);
             result.put("llmResponse", llmResponse);
-            result.put("contents", decodedDocuments);
+            result.put("contents", top5Documents);
 
             // 응답 반환
             return ResponseEntity.ok(result);
@@ -102,27 +101,6 @@ public class ReRankingController {
         }
     }
 
-    /**
-     * 리랭킹된 문서에서 원본 데이터를 디코딩하여 추출합니다.
-     *
-     * @param documents 리랭킹된 문서 목록
-     * @return 디코딩된 문서 정보 목록
-     */
-    private List<Map<String, Object>> decodeDocuments(List<Map<String, Object>> documents) {
-        return documents.stream().map(doc -> {
-            // 각 문서의 원본 필드들을 추출
-            Map<String, Object> decodedDoc = new HashMap<>();
-            decodedDoc.put("productName", doc.get("productName"));
-            decodedDoc.put("saleStartDate", doc.get("saleStartDate"));
-            decodedDoc.put("saleEndDate", doc.get("saleEndDate"));
-            decodedDoc.put("uploadDate", doc.get("uploadDate"));
-            decodedDoc.put("chunk", doc.get("chunk"));
-            decodedDoc.put("channel", doc.get("channel"));
-            decodedDoc.put("fileName", doc.get("fileName"));
-            return decodedDoc;
-        }).collect(Collectors.toList());
-    }
-
     /**
      * 1차 검색 수행 후, LLM API 호출하여 응답을 반환하는 메서드
      *
@@ -131,25 +109,26 @@ public class ReRankingController {
      */
     @GetMapping("/simple-search")
     public ResponseEntity<Map<String, Object>> simpleSearch(@RequestParam("query") String query) {
+        return singleFlight.execute("rerank-simple", query, null, () -> processSimpleSearch(query));
+    }
+
+    private ResponseEntity<Map<String, Object>> processSimpleSearch(String query) {
         try {
             // 1차 검색 수행 (15개의 문서)
-            List<Map<String, Object>> documents = searchService.searchDocumentsTopKByKeyword(query, 15);
+            List<ChunkHit> documents = searchService.searchDocumentsTopKByKeyword(query, 15);
             for (int i = 0; i < documents.size(); i++) {
-                logger.info("{} 번째 결과: {}", i + 1, documents.get(i));
+                logger.info("{} 번째 결과: {}", i + 1, documents.get(i).chunk());
             }
 
-            // 검색된 문서에서 원본 데이터 추출
-            List<Map<String, Object>> decodedDocuments = decodeDocuments(documents);
-
             // LLM API 호출
-            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, decodedDocuments);
+            Map<String, Object> llmResponseMap = createPrompt.generateResponse(query, documents);
             String llmResponse = llmResponseMap.toString();  // Map을 String으로 변환
 
             // 응답 결과 생성
             Map<String, Object> result = new HashMap<>();
             result.put("query", query);
             result.put("llmResponse", llmResponse);
-            result.put("contents", decodedDocuments);
+            result.put("contents", documents);
 
             // 응답 반환
             return ResponseEntity.ok(result);
@@ -0,0 +1,67 @@
+package com.flutter.DataPreprocessingService.controller.rerank;
+
+import com.flutter.DataPreprocessingService.service.rag.ReactiveRagService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 리랭킹 API의 논블로킹 버전.
+ *
+ * Mono를 반환하면 요청 스레드는 바로 반환되고, Elasticsearch/Upstage 응답이 모두 도착했을 때 응답을 쓴다.
+ * 응답 형식은 /api/rerank/top-k, /api/enhanced-search/reranked-search와 같다.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+public class ReactiveReRankingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReRankingController.class);
+
+    private final ReactiveRagService reactiveRagService;
+
+    /**
+     * 리랭킹된 문서 검색 결과와 LLM API 응답을 반환합니다.
+     *
+     * @param query 검색 쿼리
+     * @param strategy 1차 검색 방식 (keyword: BM25 상위 20개, hybrid: BM25 + 벡터 RRF 상위 10개)
+     * @return 리랭킹된 문서 목록과 LLM API 응답
+     */
+    @GetMapping("/rerank/top-k")
+    public Mono<ResponseEntity<Map<String, Object>>> getReRankedResults(@RequestParam("query") String query,
+                                                                        @RequestParam(value = "strategy", defaultValue = "keyword") String strategy) {
+        return reactiveRagService.answer(query, "hybrid".equalsIgnoreCase(strategy))
+                .map(ResponseEntity::ok)
+                .onErrorResume(ReactiveReRankingController::errorResponse);
+    }
+
+    /**
+     * 상품 범위에서 리랭킹된 문서 목록과 LLM API 응답을 반환합니다.
+     *
+     * @param query 검색어
+     * @param productName 상품명
+     * @return 리랭킹된 문서 목록과 LLM API 응답
+     */
+    @GetMapping("/enhanced-search/reranked-search")
+    public Mono<ResponseEntity<Map<String, Object>>> rerankedSearch(@RequestParam("query") String query,
+                                                                    @RequestParam("productName") String productName) {
+        return reactiveRagService.answerForProduct(query, productName)
+                .map(ResponseEntity::ok)
+                .onErrorResume(ReactiveReRankingController::errorResponse);
+    }
+
+    private static Mono<ResponseEntity<Map<String, Object>>> errorResponse(Throwable e) {
+        logger.error("검색 처리 중 오류 발생", e);
+        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.singletonMap("error", e.getMessage())));
+    }
+}
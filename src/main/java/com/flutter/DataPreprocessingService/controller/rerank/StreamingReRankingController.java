@@ -0,0 +1,81 @@
+package com.flutter.DataPreprocessingService.controller.rerank;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.prompt.StreamingPromptService;
+import com.flutter.DataPreprocessingService.service.rag.ReactiveRagService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 리랭킹 API의 Server-Sent Events 버전. 채팅 화면(chat.html, enhancedChat.html)이 사용한다.
+ *
+ * 리랭킹이 끝나는 즉시 documents 이벤트로 LLM에 전달할 청크를 보내고, 이어서 LLM 토큰이 도착하는 대로 token 이벤트로 전달한다.
+ * 마지막에 done 이벤트를 보내며, 실패하면 error 이벤트를 보내고 끝낸다.
+ * 이벤트 data는 모두 JSON이다 (token: {"content": "..."}, error: {"error": "..."}).
+ */
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class StreamingReRankingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingReRankingController.class);
+
+    private final ReactiveRagService reactiveRagService;
+    private final StreamingPromptService streamingPromptService;
+
+    /**
+     * 리랭킹된 문서와 LLM 답변 토큰을 스트리밍합니다.
+     *
+     * @param query 검색 쿼리
+     * @param strategy 1차 검색 방식 (keyword: BM25 상위 20개, hybrid: BM25 + 벡터 RRF 상위 10개)
+     * @return documents, token, done 이벤트 스트림
+     */
+    @GetMapping(path = "/rerank/top-k", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamReRankedResults(@RequestParam("query") String query,
+                                                                @RequestParam(value = "strategy", defaultValue = "keyword") String strategy) {
+        return stream(query, reactiveRagService.retrieve(query, "hybrid".equalsIgnoreCase(strategy)));
+    }
+
+    /**
+     * 상품 범위에서 리랭킹된 문서와 LLM 답변 토큰을 스트리밍합니다.
+     *
+     * @param query 검색어
+     * @param productName 상품명
+     * @return documents, token, done 이벤트 스트림
+     */
+    @GetMapping(path = "/enhanced-search/reranked-search", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamRerankedSearch(@RequestParam("query") String query,
+                                                               @RequestParam("productName") String productName) {
+        return stream(query, reactiveRagService.retrieveForProduct(query, productName));
+    }
+
+    private Flux<ServerSentEvent<Object>> stream(String query, Mono<List<ChunkHit>> retrieval) {
+        return retrieval
+                .flatMapMany(documents -> Flux.concat(
+                        Mono.just(event("documents", documents)),
+                        streamingPromptService.streamResponse(query, documents)
+                                .map(token -> event("token", Collections.singletonMap("content", token))),
+                        Mono.just(event("done", Collections.emptyMap()))))
+                .onErrorResume(e -> {
+                    logger.error("스트리밍 검색 처리 중 오류 발생", e);
+                    return Mono.just(event("error", Collections.singletonMap("error", String.valueOf(e.getMessage()))));
+                });
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+}
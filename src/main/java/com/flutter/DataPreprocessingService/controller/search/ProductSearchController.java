@@ -1,15 +1,18 @@
 package com.flutter.DataPreprocessingService.controller.search;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.dto.search.ChunkSearchRequest;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchProductSearchService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/product-search")
@@ -18,12 +21,26 @@ public class ProductSearchController {
 
     private final ElasticsearchProductSearchService searchService;
 
+    /**
+     * 상품 안에서 검색어로 청크를 검색한다. channel, productType, onSaleAt(yyyy-MM-dd)을 주면 필터로 함께 적용한다.
+     */
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> searchByProductName(
+    public ResponseEntity<List<ChunkHit>> searchByProductName(
             @RequestParam("query") String query,
-            @RequestParam("productName") String productName) {
+            @RequestParam("productName") String productName,
+            @RequestParam(value = "channel", required = false) String channel,
+            @RequestParam(value = "productType", required = false) String productType,
+            @RequestParam(value = "onSaleAt", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate onSaleAt,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
 
-        List<Map<String, Object>> results = searchService.searchDocumentsByProductName(query, productName);
+        List<ChunkHit> results = searchService.searchDocuments(ChunkSearchRequest.builder()
+                .query(query)
+                .productName(productName)
+                .channel(channel)
+                .productType(productType)
+                .onSaleAt(onSaleAt)
+                .size(size)
+                .build());
 
         return ResponseEntity.ok(results);
     }
@@ -1,6 +1,11 @@
 package com.flutter.DataPreprocessingService.controller.search;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
 import com.flutter.DataPreprocessingService.service.search.ElasticsearchDocumentSearchService;  // 수정된 서비스로 변경
+import com.flutter.DataPreprocessingService.service.vector.VectorHit;
+import com.flutter.DataPreprocessingService.service.vector.VectorIndexService;
+import com.flutter.DataPreprocessingService.service.vector.VectorSegmentStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,6 +15,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 문서 검색을 위한 REST 컨트롤러 클래스.
@@ -20,6 +27,9 @@ import java.util.Map;
 public class SearchController {
 
     private final ElasticsearchDocumentSearchService documentSearchService;  // 수정된 서비스 클래스 사용
+    private final EmbeddingService embeddingService;
+    private final VectorIndexService vectorIndexService;
+    private final VectorSegmentStore vectorSegmentStore;
 
     /**
      * 키워드를 기반으로 문서를 검색한다.
@@ -28,9 +38,9 @@ public class SearchController {
      * @return 검색된 문서 목록
      */
     @GetMapping("single")
-    public ResponseEntity<List<Map<String, Object>>> search(@RequestParam("query") String query) {
+    public ResponseEntity<List<ChunkHit>> search(@RequestParam("query") String query) {
         System.out.println("쿼리----------->" + query);
-        List<Map<String, Object>> results = documentSearchService.searchDocumentsByKeyword(query);
+        List<ChunkHit> results = documentSearchService.searchDocumentsByKeyword(query);
 
         System.out.println("결과!!!" + results);
         return ResponseEntity.ok(results);
@@ -45,8 +55,46 @@ public class SearchController {
      * @return 검색된 문서 목록
      */
     @GetMapping("/top-k")
-    public ResponseEntity<List<Map<String, Object>>> searchTopK(@RequestParam("query") String query, @RequestParam(value = "topK", defaultValue = "10") int topK) {
-        List<Map<String, Object>> results = documentSearchService.searchDocumentsTopKByKeyword(query, topK);
+    public ResponseEntity<List<ChunkHit>> searchTopK(@RequestParam("query") String query, @RequestParam(value = "topK", defaultValue = "10") int topK) {
+        List<ChunkHit> results = documentSearchService.searchDocumentsTopKByKeyword(query, topK);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * 키워드 검색 결과와 무관하게 HNSW 벡터 인덱스에서 쿼리와 의미가 가장 가까운 청크 K개를 찾는다.
+     *
+     * @param query 검색할 질문
+     * @param topK 상위 K개의 결과 수
+     * @return 유사도 순 문서 목록 (score 필드에 유사도)
+     */
+    @GetMapping("/semantic")
+    public ResponseEntity<List<ChunkHit>> searchSemantic(@RequestParam("query") String query, @RequestParam(value = "topK", defaultValue = "10") int topK) {
+        List<VectorHit> hits = vectorIndexService.search(embeddingService.getQueryEmbedding(query), topK);
+        Map<String, ChunkHit> documentsById = documentSearchService.findDocumentsByIds(hits.stream().map(VectorHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(ChunkHit::id, Function.identity()));
+
+        List<ChunkHit> results = hits.stream()
+                .filter(hit -> documentsById.containsKey(hit.id()))
+                .map(hit -> documentsById.get(hit.id()).withScore((double) hit.score()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * 메모리 매핑된 벡터 세그먼트를 전수 검색하여 쿼리와 가장 유사한 청크 K개를 찾는다.
+     * Elasticsearch를 거치지 않으며, 근사 검색(HNSW)이 아닌 정확한 결과를 돌려준다.
+     *
+     * @param query 검색할 질문
+     * @param productName 검색할 상품명 (생략 시 전체)
+     * @param topK 상위 K개의 결과 수
+     * @return 유사도 순 문서 목록 (score 필드에 유사도)
+     */
+    @GetMapping("/exact")
+    public ResponseEntity<List<ChunkHit>> searchExact(@RequestParam("query") String query,
+                                                        @RequestParam(value = "productName", required = false) String productName,
+                                                        @RequestParam(value = "topK", defaultValue = "10") int topK) {
+        List<ChunkHit> results = vectorSegmentStore.search(embeddingService.getQueryEmbedding(query), productName, topK);
         return ResponseEntity.ok(results);
     }
 }
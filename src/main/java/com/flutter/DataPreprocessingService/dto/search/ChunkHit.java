@@ -0,0 +1,54 @@
+package com.flutter.DataPreprocessingService.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 청크 검색 결과 한 건.
+ *
+ * Elasticsearch 클라이언트의 Jackson 매퍼가 _source를 바로 이 타입으로 읽으므로 중간 트리나 Map을 만들지 않는다.
+ * id와 score는 _source가 아닌 검색 결과 메타데이터(_id, _score 또는 융합/유사도 점수)에서 채운다.
+ *
+ * @param id 청크 문서 ID
+ * @param chunk 청크 내용 (HTML)
+ * @param productName 상품명
+ * @param productType 보험 상품 종류
+ * @param channel 판매 채널
+ * @param fileName 원본 파일명
+ * @param saleStartDate 판매 시작일 (yyyy-MM-dd)
+ * @param saleEndDate 판매 종료일 (yyyy-MM-dd)
+ * @param uploadDate 업로드 일자 (에포크 초)
+ * @param score 검색 점수 (BM25, RRF 융합 점수 또는 벡터 유사도)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChunkHit(String id,
+                       String chunk,
+                       String productName,
+                       String productType,
+                       String channel,
+                       String fileName,
+                       String saleStartDate,
+                       String saleEndDate,
+                       Long uploadDate,
+                       Double score) {
+
+    /**
+     * 검색 시 _source에서 가져올 필드. 임베딩 등 나머지 필드는 전송하지 않는다.
+     */
+    public static final List<String> SOURCE_FIELDS = List.of(
+            "chunk", "productName", "productType", "channel", "fileName", "saleStartDate", "saleEndDate", "uploadDate");
+
+    /**
+     * 검색 결과 메타데이터의 ID와 점수를 채운 사본을 반환한다.
+     */
+    public ChunkHit withHitMetadata(String id, Double score) {
+        return new ChunkHit(id, chunk, productName, productType, channel, fileName, saleStartDate, saleEndDate, uploadDate, score);
+    }
+
+    public ChunkHit withScore(Double score) {
+        return withHitMetadata(id, score);
+    }
+}
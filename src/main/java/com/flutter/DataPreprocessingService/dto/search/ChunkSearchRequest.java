@@ -0,0 +1,33 @@
+package com.flutter.DataPreprocessingService.dto.search;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+/**
+ * 청크 검색 조건.
+ *
+ * query는 점수 계산(BM25)에 쓰이고, 나머지 조건은 점수에 영향을 주지 않는 filter 절로 들어가
+ * Elasticsearch 필터 캐시를 재사용한다. 값이 null인 조건은 적용하지 않는다.
+ *
+ * @param query 검색어
+ * @param productName 상품명 (정확히 일치)
+ * @param channel 판매 채널 (정확히 일치)
+ * @param productType 보험 상품 종류 (정확히 일치)
+ * @param onSaleAt 이 날짜에 판매 중인 상품만 (판매 시작일 ≤ 날짜 ≤ 판매 종료일, 시작일이나 종료일이 없으면 그쪽 조건은 따지지 않는다)
+ * @param size 반환할 결과 수
+ */
+@Builder
+public record ChunkSearchRequest(String query,
+                                 String productName,
+                                 String channel,
+                                 String productType,
+                                 LocalDate onSaleAt,
+                                 int size) {
+
+    public ChunkSearchRequest {
+        if (size <= 0) {
+            size = 10;
+        }
+    }
+}
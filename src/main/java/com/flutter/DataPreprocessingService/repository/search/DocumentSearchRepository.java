@@ -1,7 +1,9 @@
 package com.flutter.DataPreprocessingService.repository.search;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.dto.search.ChunkSearchRequest;
+
 import java.util.List;
-import java.util.Map;
 
 /**
  * 문서 검색을 위한 레포지토리 인터페이스 정의.
@@ -14,7 +16,7 @@ public interface DocumentSearchRepository {
      * @param query 검색할 키워드
      * @return 검색된 문서 목록
      */
-    List<Map<String, Object>> searchDocumentsByKeyword(String query);
+    List<ChunkHit> searchDocumentsByKeyword(String query);
 
 
     /**
@@ -24,8 +26,36 @@ public interface DocumentSearchRepository {
      * @param topK 상위 K개의 검색 결과
      * @return 검색된 문서 목록
      */
-    List<Map<String, Object>> searchDocumentsTopKByKeyword(String query, int topK);
+    List<ChunkHit> searchDocumentsTopKByKeyword(String query, int topK);
+
+
+    /**
+     * 키워드(BM25) 검색과 벡터 kNN 검색을 동시에 수행하고 Reciprocal Rank Fusion으로 합친 상위 K개를 반환한다.
+     *
+     * @param query 검색할 질문
+     * @param topK 상위 K개의 검색 결과
+     * @return 융합 점수(score) 순 문서 목록
+     */
+    List<ChunkHit> searchDocumentsTopKByHybrid(String query, int topK);
+
+
+    List<ChunkHit> searchDocumentsByQueryAndProductName(String query, String productName, int topK);
+
+
+    /**
+     * 검색어로 청크를 검색하되, 상품명/채널/상품 종류/판매일 조건은 점수에 영향을 주지 않는 필터로 적용한다.
+     *
+     * @param request 검색 조건
+     * @return 검색된 문서 목록
+     */
+    List<ChunkHit> searchChunks(ChunkSearchRequest request);
 
 
-    List<Map<String, Object>> searchDocumentsByQueryAndProductName(String query, String productName, int topK);
+    /**
+     * 문서 ID 목록으로 문서를 조회한다. 결과는 ID 목록의 순서를 따르며 없는 문서는 제외한다.
+     *
+     * @param ids 문서 ID 목록
+     * @return 조회된 문서 목록
+     */
+    List<ChunkHit> findDocumentsByIds(List<String> ids);
 }
@@ -2,18 +2,28 @@ package com.flutter.DataPreprocessingService.service.chunking;
 
 import com.flutter.DataPreprocessingService.entity.DocumentMetadata;
 import com.flutter.DataPreprocessingService.repository.document_meta.DocumentMetadataRepository;
-import com.flutter.DataPreprocessingService.service.pdf_parse.PdfParsingService;
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
+import com.flutter.DataPreprocessingService.service.indexing.BulkIndexSession;
+import com.flutter.DataPreprocessingService.service.indexing.BulkIndexWriter;
+import com.flutter.DataPreprocessingService.service.indexing.SaleDates;
+import com.flutter.DataPreprocessingService.service.ingestion.IngestionPipelineService;
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
+import com.flutter.DataPreprocessingService.service.vector.VectorIndexService;
+import com.flutter.DataPreprocessingService.service.vector.VectorSegment;
+import com.flutter.DataPreprocessingService.service.vector.VectorSegmentStore;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -24,8 +34,12 @@ public class EnhancedChunkingService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedChunkingService.class);
     private final DocumentMetadataRepository documentMetadataRepository;
-    private final PdfParsingService pdfParsingService;
-    private final ElasticsearchClient elasticsearchClient;
+    private final IngestionPipelineService ingestionPipelineService;
+    private final BulkIndexWriter bulkIndexWriter;
+    private final EmbeddingService embeddingService;
+    private final VectorIndexService vectorIndexService;
+    private final VectorSegmentStore vectorSegmentStore;
+    private final ProductShardCache productShardCache;
 
     @Value("${spring.elasticsearch.index-name}")
     private String indexName;
@@ -38,73 +52,86 @@ public class EnhancedChunkingService {
         List<DocumentMetadata> pendingDocuments = documentMetadataRepository.findByChunkingStatusNot(DocumentMetadata.ChunkingStatus.COMPLETED);
 
         for (DocumentMetadata document : pendingDocuments) {
-            try {
+            List<VectorSegment.Row> segmentRows = Collections.synchronizedList(new ArrayList<>());
+            try (BulkIndexSession session = bulkIndexWriter.openSession(indexName)) {
                 logger.info("문서 청킹 시작: {}", document.getFilePath());
-                List<File> chunkedFiles = pdfParsingService.chunkPdf(document.getFilePath(), 50);
-
-                for (File chunk : chunkedFiles) {
-                    Map<String, Object> parsedResult = pdfParsingService.analyzeDocumentWithUpstage(chunk.getAbsolutePath());
-
-                    if (parsedResult != null && !parsedResult.isEmpty()) {
-                        logger.info("문서 파싱 완료, Elasticsearch에 저장 시작");
-                        List<Map<String, Object>> chunks = createChunksWithOverlap((List<Map<String, Object>>) parsedResult.get("elements"));
-                        saveChunksToElasticsearch(chunks, document);
-
-                        if (chunk.delete()) {
-                            logger.info("청크 파일 삭제 성공: {}", chunk.getAbsolutePath());
-                        } else {
-                            logger.error("청크 파일 삭제 실패: {}", chunk.getAbsolutePath());
-                        }
-                    } else {
-                        logger.error("API 호출 실패로 인해 청크 파일을 삭제하지 않음: {}", chunk.getAbsolutePath());
-                    }
-                }
-
-                document.setChunkingStatus(DocumentMetadata.ChunkingStatus.COMPLETED);
-                documentMetadataRepository.save(document);
-                logger.info("문서 청킹 및 인덱싱 완료: {}", document.getFilePath());
+                IngestionPipelineService.IngestionResult result = ingestionPipelineService.run(document, 50,
+                        (rangeIndex, parsedResult) -> chunkAndIndex(parsedResult, document, rangeIndex, session, segmentRows));
+                replacePreviousChunks(document, result, session);
+                markCompletedIfIndexed(document, result);
+                writeSegment(document, segmentRows);
 
             } catch (IOException e) {
                 logger.error("문서 청킹 및 인덱싱 실패: {}", document.getFilePath(), e);
             }
         }
+        vectorIndexService.persist();
     }
 
     public void processChunkingAndIndexing2(DocumentMetadata documentMetadata) {
-        // 전달된 단일 문서에 대해 청킹 수행
-        try {
+        // 전달된 단일 문서에 대해 청킹 수행 (분할, 파싱, 인덱싱이 파이프라인으로 동시에 진행됨)
+        List<VectorSegment.Row> segmentRows = Collections.synchronizedList(new ArrayList<>());
+        try (BulkIndexSession session = bulkIndexWriter.openSession(indexName)) {
             logger.info("문서 청킹 시작: {}", documentMetadata.getFilePath());
-            List<File> chunkedFiles = pdfParsingService.chunkPdf(documentMetadata.getFilePath(), 15);
-
-            for (File chunk : chunkedFiles) {
-                Map<String, Object> parsedResult = pdfParsingService.analyzeDocumentWithUpstage(chunk.getAbsolutePath());
+            IngestionPipelineService.IngestionResult result = ingestionPipelineService.run(documentMetadata, 15,
+                    (rangeIndex, parsedResult) -> chunkAndIndex(parsedResult, documentMetadata, rangeIndex, session, segmentRows));
+            replacePreviousChunks(documentMetadata, result, session);
 
-                if (parsedResult != null && !parsedResult.isEmpty()) {
-                    logger.info("문서 파싱 완료, Elasticsearch에 저장 시작");
-                    List<Map<String, Object>> chunks = createChunksWithOverlap((List<Map<String, Object>>) parsedResult.get("elements"));
-                    saveChunksToElasticsearch(chunks, documentMetadata);
-
-                    if (chunk.delete()) {
-                        logger.info("청크 파일 삭제 성공: {}", chunk.getAbsolutePath());
-                    } else {
-                        logger.error("청크 파일 삭제 실패: {}", chunk.getAbsolutePath());
-                    }
-                } else {
-                    logger.error("API 호출 실패로 인해 청크 파일을 삭제하지 않음: {}", chunk.getAbsolutePath());
-                }
-            }
+            // 청킹 상태를 완료로 업데이트 (실패한 구간이 있으면 그대로 두어 다시 처리)
+            markCompletedIfIndexed(documentMetadata, result);
 
-            // 청킹 상태를 완료로 업데이트
-            documentMetadata.setChunkingStatus(DocumentMetadata.ChunkingStatus.COMPLETED);
-            documentMetadataRepository.save(documentMetadata);
-            logger.info("문서 청킹 및 인덱싱 완료: {}", documentMetadata.getFilePath());
+            writeSegment(documentMetadata, segmentRows);
 
         } catch (IOException e) {
             logger.error("문서 청킹 및 인덱싱 실패: {}", documentMetadata.getFilePath(), e);
         }
+        vectorIndexService.persist();
+    }
+
+    /**
+     * 다시 청킹해 청크 수가 줄면 이전 청킹의 뒤쪽 청크 ID가 덮어써지지 않고 남으므로, 세션 종료 시 이번에 저장하지 않은
+     * 같은 파일의 청크를 지우고 HNSW 인덱스에서도 뺀다. 파싱에 실패한 구간이 있으면 그 구간의 이전 청크를 지우지 않도록 건너뛴다.
+     */
+    private void replacePreviousChunks(DocumentMetadata documentMetadata, IngestionPipelineService.IngestionResult result,
+                                       BulkIndexSession session) {
+        if (documentMetadata.getFileName() == null || !result.isComplete()) {
+            return;
+        }
+        session.replaceDocumentsOf("fileName.keyword", documentMetadata.getFileName(), vectorIndexService::remove);
+    }
+
+    /**
+     * 모든 구간이 인덱싱된 문서만 청킹 완료로 표시한다. 실패한 구간이 있으면 상태를 그대로 두어 다음 처리 때 다시 시도한다.
+     */
+    private void markCompletedIfIndexed(DocumentMetadata documentMetadata, IngestionPipelineService.IngestionResult result) {
+        if (!result.isComplete()) {
+            logger.warn("일부 구간 처리 실패, 다음 처리 때 다시 시도: {} (실패 {}개)", documentMetadata.getFilePath(), result.failedRanges());
+            return;
+        }
+        documentMetadata.setChunkingStatus(DocumentMetadata.ChunkingStatus.COMPLETED);
+        documentMetadataRepository.save(documentMetadata);
+        logger.info("문서 청킹 및 인덱싱 완료: {}", documentMetadata.getFilePath());
     }
 
+    /**
+     * 파싱된 구간 하나를 청킹하여 Elasticsearch에 저장한다.
+     */
+    private void chunkAndIndex(Map<String, Object> parsedResult, DocumentMetadata documentMetadata, int rangeIndex,
+                               BulkIndexSession session, List<VectorSegment.Row> segmentRows) {
+        logger.info("문서 파싱 완료, Elasticsearch에 저장 시작");
+        List<Map<String, Object>> chunks = createChunksWithOverlap((List<Map<String, Object>>) parsedResult.get("elements"));
+        saveChunksToElasticsearch(chunks, documentMetadata, rangeIndex, session, segmentRows);
+    }
 
+    /**
+     * 문서의 청크 임베딩을 벡터 세그먼트 파일로 저장한다. 같은 문서의 이전 세그먼트는 교체되며,
+     * 상품 샤드는 다음 검색 때 새 세그먼트로 다시 읽도록 무효화한다.
+     */
+    private void writeSegment(DocumentMetadata documentMetadata, List<VectorSegment.Row> segmentRows) {
+        String productName = documentMetadata.getProductName() != null ? documentMetadata.getProductName() : "unknown";
+        vectorSegmentStore.writeDocumentSegment(documentMetadata.getFileName(), productName, segmentRows);
+        productShardCache.invalidate(productName);
+    }
 
     public List<Map<String, Object>> createChunksWithOverlap(List<Map<String, Object>> elements) {
         List<Map<String, Object>> chunks = new ArrayList<>();
@@ -182,35 +209,72 @@ public class EnhancedChunkingService {
         return overlappedChunks;
     }
 
-    public void saveChunksToElasticsearch(List<Map<String, Object>> chunks, DocumentMetadata metadata) {
+    /**
+     * 청크를 벌크 세션에 추가한다. 실제 전송은 BulkIndexWriter가 모아서 수행한다.
+     *
+     * 청크 ID는 파일명, 페이지 구간, 청크 순번으로 정해지므로 재시도나 재처리 시 중복 문서가 생기지 않고 덮어쓴다
+     * (청크 수가 줄어 남는 이전 청크는 replacePreviousChunks로 지운다).
+     * 임베딩이 만들어진 청크는 segmentRows에도 모아 문서 처리가 끝난 뒤 벡터 세그먼트로 저장한다.
+     * 저장 중 예외는 잡지 않고 던져서 파이프라인이 실패 구간으로 집계하게 한다 (실패 구간이 있으면 이전 청크를 지우지 않음).
+     */
+    public void saveChunksToElasticsearch(List<Map<String, Object>> chunks, DocumentMetadata metadata, int rangeIndex,
+                                          BulkIndexSession session, List<VectorSegment.Row> segmentRows) {
+        // 구간의 청크 임베딩을 배치로 한 번에 생성하여 kNN 검색용으로 함께 저장
+        // (_source에서는 제외되므로 리랭킹은 문서 처리 후 저장하는 벡터 세그먼트에서 청크 ID로 찾는다)
+        List<Embedding> embeddings = null;
         try {
-            for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {  // 변경: i 대신 chunkIndex 사용
-                Map<String, Object> chunk = chunks.get(chunkIndex);
-                String elementId = UUID.randomUUID().toString();  // UUID를 사용하여 고유한 ID 생성
-                long uploadDateEpoch = metadata.getUploadDate().atStartOfDay(ZoneId.systemDefault()).toEpochSecond();  // LocalDate를 long 타입 에포크 시간으로 변환
-
-                Map<String, Object> data = Map.of(
-                        "chunk", chunk.get("chunk"),
-                        "productName", metadata.getProductName() != null ? metadata.getProductName() : "unknown",
-                        "saleStartDate", metadata.getSaleStartDate() != null ? metadata.getSaleStartDate().toString() : "unknown",
-                        "saleEndDate", metadata.getSaleEndDate() != null ? metadata.getSaleEndDate().toString() : "unknown",
-                        "channel", metadata.getChannel() != null ? metadata.getChannel() : "unknown",
-                        "fileName", metadata.getFileName() != null ? metadata.getFileName() : "unknown",
-                        "uploadDate", uploadDateEpoch  // uploadDate를 long으로 변환하여 저장
-                );
-
-                elasticsearchClient.index(indexRequest -> indexRequest  // 변경: i 대신 indexRequest 사용
-                        .index(indexName)
-                        .id(elementId)  // 고유한 elementId 사용
-                        .document(data)
-                );
-
-                // 청크 데이터와 elementId 로그 출력
-                logger.info("Elasticsearch에 저장된 청크: \nElement ID: {}", elementId);
+            embeddings = embeddingService.getPassageEmbeddings(chunks.stream()
+                    .map(chunk -> (String) chunk.get("chunk"))
+                    .toList());
+        } catch (IllegalStateException e) {
+            logger.warn("구간 {}의 청크 임베딩 생성 실패, 임베딩 없이 저장", rangeIndex, e);
+        }
+
+        for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {  // 변경: i 대신 chunkIndex 사용
+            Map<String, Object> chunk = chunks.get(chunkIndex);
+            String elementId = chunkIdOf(metadata, rangeIndex, chunkIndex);
+            Map<String, Object> data = chunkDocumentOf(metadata, (String) chunk.get("chunk"));
+
+            if (embeddings != null) {
+                segmentRows.add(vectorSegmentStore.rowOf(elementId, embeddings.get(chunkIndex), data));
+                data.put("embedding", embeddings.get(chunkIndex).values());
+                vectorIndexService.add(elementId, embeddings.get(chunkIndex));
             }
-            logger.info("Elasticsearch에 모든 데이터 저장 성공");
-        } catch (Exception e) {
-            logger.error("Elasticsearch에 데이터 저장 실패", e);
+
+            session.index(elementId, data);
+            logger.debug("벌크 큐에 추가된 청크: Element ID: {}", elementId);
+        }
+        logger.info("구간 {}의 청크 {}개를 벌크 큐에 추가", rangeIndex, chunks.size());
+    }
+
+    /**
+     * 청크 문서 필드를 만든다. 값이 없는 필드는 "unknown" 같은 대체 문자열 대신 아예 넣지 않으며,
+     * 판매일자는 인덱스 템플릿의 date 타입에 맞게 yyyy-MM-dd로 정규화한다.
+     */
+    private static Map<String, Object> chunkDocumentOf(DocumentMetadata metadata, String chunk) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("chunk", chunk);
+        putIfPresent(data, "productName", metadata.getProductName());
+        putIfPresent(data, "productType", metadata.getProductType());
+        putIfPresent(data, "channel", metadata.getChannel());
+        putIfPresent(data, "fileName", metadata.getFileName());
+        putIfPresent(data, "saleStartDate", SaleDates.toIsoDate(metadata.getSaleStartDate()));
+        putIfPresent(data, "saleEndDate", SaleDates.toIsoDate(metadata.getSaleEndDate()));
+        if (metadata.getUploadDate() != null) {
+            // LocalDate를 long 타입 에포크 시간(초)으로 변환
+            data.put("uploadDate", metadata.getUploadDate().atStartOfDay(ZoneId.systemDefault()).toEpochSecond());
         }
+        return data;
+    }
+
+    private static void putIfPresent(Map<String, Object> data, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            data.put(field, value);
+        }
+    }
+
+    private static String chunkIdOf(DocumentMetadata metadata, int rangeIndex, int chunkIndex) {
+        String key = metadata.getFileName() + "#" + rangeIndex + "#" + chunkIndex;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
     }
 }
@@ -0,0 +1,83 @@
+package com.flutter.DataPreprocessingService.service.embedding;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.List;
+
+/**
+ * float[]로 표현한 임베딩 벡터. L2 노름을 생성 시점에 한 번만 계산해 둔다.
+ *
+ * 4096차원 벡터 기준으로 List&lt;Double&gt;(약 80KB) 대신 16KB만 사용한다.
+ * values()는 복사하지 않은 내부 배열을 반환하므로 호출하는 쪽에서 수정하면 안 된다.
+ * 코사인 유사도를 내적 한 번으로 계산할 수 있도록 단위 벡터(normalized())를 처음 요청될 때 만들어 보관한다.
+ * JSON으로 직렬화하면 숫자 배열이 된다.
+ */
+public final class Embedding {
+
+    private final float[] values;
+    private final float norm;
+    private volatile float[] normalized;
+
+    private Embedding(float[] values) {
+        this.values = values;
+        double sum = 0.0;
+        for (float value : values) {
+            sum += value * value;
+        }
+        this.norm = (float) Math.sqrt(sum);
+    }
+
+    /**
+     * 배열을 복사하지 않고 감싼다. 이후 배열을 수정하면 안 된다.
+     */
+    public static Embedding of(float[] values) {
+        return new Embedding(values);
+    }
+
+    /**
+     * Elasticsearch _source 등에서 읽은 숫자 목록으로 임베딩을 만든다.
+     */
+    public static Embedding fromNumbers(List<?> numbers) {
+        float[] values = new float[numbers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Number) numbers.get(i)).floatValue();
+        }
+        return new Embedding(values);
+    }
+
+    @JsonValue
+    public float[] values() {
+        return values;
+    }
+
+    public int dimensions() {
+        return values.length;
+    }
+
+    public float norm() {
+        return norm;
+    }
+
+    /**
+     * 노름으로 나눈 단위 벡터. 노름이 0이면 0 벡터를 반환한다. 반환된 배열을 수정하면 안 된다.
+     */
+    public float[] normalized() {
+        float[] unit = normalized;
+        if (unit == null) {
+            unit = new float[values.length];
+            if (norm > 0f) {
+                float inverse = 1f / norm;
+                for (int i = 0; i < values.length; i++) {
+                    unit[i] = values[i] * inverse;
+                }
+            }
+            normalized = unit;
+        }
+        return unit;
+    }
+
+    @Override
+    public String toString() {
+        return "Embedding[dimensions=" + values.length + ", norm=" + norm + "]";
+    }
+}
@@ -0,0 +1,274 @@
+package com.flutter.DataPreprocessingService.service.embedding;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 임베딩 결과를 보관하는 2단계 캐시.
+ *
+ * 키는 모델명과 정규화한 텍스트(NFC, 앞뒤 공백 제거, 연속 공백 축약)의 SHA-256이다.
+ * 1단계는 힙의 LRU, 2단계는 재시작 후에도 유지되는 디스크 파일이며, 디스크 파일은 추가 기록만 하고
+ * 읽기는 메모리 매핑으로 수행한다.
+ *
+ * 디스크 단계는 제거 정책이 없는 고정 상한(disk-max-size-mb)이다. 상한에 도달하면 기존 항목은 그대로 두고
+ * 새 항목을 기록하지 않으므로 그 뒤의 새 텍스트는 힙 단계에만 캐시된다. 기록하지 못한 항목 수는 stats()의
+ * diskRejectedWrites로 확인하며, 디스크 단계를 비우려면 서비스를 내린 뒤 캐시 파일을 지운다.
+ *
+ * 디스크 레코드 형식 (little-endian): [키 길이 int][키 UTF-8][차원 수 int][float * 차원 수]
+ */
+@Component
+public class EmbeddingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+    private static final String FILE_NAME = "embeddings.bin";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 메모리 매핑 한 번으로 읽을 수 있는 최대 크기 (MappedByteBuffer 한도)
+    private static final long MAX_MAPPABLE_BYTES = Integer.MAX_VALUE;
+
+    private final Map<String, DiskEntry> diskIndex = new ConcurrentHashMap<>();
+    private final AtomicLong heapHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // 힙 단계에서 밀려난 항목 수 (디스크 단계는 제거하지 않는다)
+    private final AtomicLong heapEvictions = new AtomicLong();
+    private final AtomicLong diskRejectedWrites = new AtomicLong();
+
+    @Value("${embedding.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${embedding.cache.heap-max-entries:2000}")
+    private int heapMaxEntries;
+
+    @Value("${embedding.cache.dir:cache/embedding}")
+    private String cacheDir;
+
+    @Value("${embedding.cache.disk-max-size-mb:1024}")
+    private long diskMaxSizeMb;
+
+    private Map<String, Embedding> heap;
+    private FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private volatile long diskBytes;
+    private boolean diskFullLogged;
+
+    @PostConstruct
+    void init() throws IOException {
+        heap = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Embedding> eldest) {
+                if (size() > heapMaxEntries) {
+                    heapEvictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (!enabled) {
+            return;
+        }
+
+        Path dir = Paths.get(cacheDir);
+        Files.createDirectories(dir);
+        channel = FileChannel.open(dir.resolve(FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 디스크 파일을 처음부터 읽어 키별 위치를 복원한다. 마지막 레코드가 잘려 있으면 그 앞까지만 남긴다.
+     */
+    private synchronized void loadIndex() throws IOException {
+        long size = Math.min(channel.size(), MAX_MAPPABLE_BYTES);
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+
+        long position = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int keyLength = buffer.getInt();
+            if (keyLength <= 0 || buffer.remaining() < keyLength + Integer.BYTES) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(keyBytes);
+            int dimensions = buffer.getInt();
+            if (dimensions <= 0 || buffer.remaining() < (long) dimensions * Float.BYTES) {
+                break;
+            }
+            long vectorOffset = buffer.position();
+            buffer.position(buffer.position() + dimensions * Float.BYTES);
+            diskIndex.put(new String(keyBytes, StandardCharsets.UTF_8), new DiskEntry(vectorOffset, dimensions));
+            position = buffer.position();
+        }
+
+        if (position < channel.size()) {
+            logger.warn("임베딩 캐시 파일 끝의 불완전한 레코드를 잘라냅니다: {} -> {} bytes", channel.size(), position);
+            channel.truncate(position);
+        }
+        diskBytes = position;
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        logger.info("임베딩 디스크 캐시 로드 완료: {}개 항목, {} bytes", diskIndex.size(), diskBytes);
+    }
+
+    /**
+     * 모델명과 정규화한 텍스트로 캐시 키를 만든다.
+     */
+    public String keyOf(String model, String text) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC).strip()).replaceAll(" ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return model + ":" + HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 알고리즘을 사용할 수 없습니다.", e);
+        }
+    }
+
+    public Optional<Embedding> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Embedding embedding;
+        synchronized (heap) {
+            embedding = heap.get(key);
+        }
+        if (embedding != null) {
+            heapHits.incrementAndGet();
+            return Optional.of(embedding);
+        }
+
+        DiskEntry entry = diskIndex.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        embedding = Embedding.of(readFromDisk(entry));
+        synchronized (heap) {
+            heap.put(key, embedding);
+        }
+        diskHits.incrementAndGet();
+        return Optional.of(embedding);
+    }
+
+    public void put(String key, Embedding embedding) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (heap) {
+            heap.put(key, embedding);
+        }
+        if (!diskIndex.containsKey(key)) {
+            appendToDisk(key, embedding.values());
+        }
+    }
+
+    private float[] readFromDisk(DiskEntry entry) {
+        MappedByteBuffer current = mapped;
+        if (entry.offset() + (long) entry.dimensions() * Float.BYTES > current.capacity()) {
+            current = remap();
+        }
+        float[] vector = new float[entry.dimensions()];
+        current.duplicate()
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .position((int) entry.offset())
+                .asFloatBuffer()
+                .get(vector);
+        return vector;
+    }
+
+    private synchronized MappedByteBuffer remap() {
+        try {
+            if (mapped.capacity() < diskBytes) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, diskBytes);
+            }
+            return mapped;
+        } catch (IOException e) {
+            throw new IllegalStateException("임베딩 캐시 파일 매핑 실패", e);
+        }
+    }
+
+    private synchronized void appendToDisk(String key, float[] vector) {
+        if (diskIndex.containsKey(key)) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int recordSize = Integer.BYTES + keyBytes.length + Integer.BYTES + vector.length * Float.BYTES;
+        if (diskBytes + recordSize > diskMaxBytes()) {
+            diskRejectedWrites.incrementAndGet();
+            if (!diskFullLogged) {
+                logger.warn("임베딩 디스크 캐시가 상한({}MB)에 도달하여 새 항목을 기록하지 않습니다. 이후 항목은 힙에만 캐시됩니다.", diskMaxSizeMb);
+                diskFullLogged = true;
+            }
+            return;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(keyBytes.length).put(keyBytes).putInt(vector.length);
+        record.asFloatBuffer().put(vector);
+        record.position(recordSize).flip();
+        try {
+            long position = diskBytes;
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            diskBytes += recordSize;
+            diskIndex.put(key, new DiskEntry(position + recordSize - (long) vector.length * Float.BYTES, vector.length));
+        } catch (IOException e) {
+            logger.warn("임베딩 디스크 캐시 기록 실패: {}", key, e);
+        }
+    }
+
+    private long diskMaxBytes() {
+        return Math.min(diskMaxSizeMb * 1024 * 1024, MAX_MAPPABLE_BYTES);
+    }
+
+    public Map<String, Object> stats() {
+        int heapEntries;
+        synchronized (heap) {
+            heapEntries = heap.size();
+        }
+        return Map.of(
+                "heapEntries", heapEntries,
+                "diskEntries", diskIndex.size(),
+                "diskBytes", diskBytes,
+                "diskMaxBytes", diskMaxBytes(),
+                "diskRejectedWrites", diskRejectedWrites.get(),
+                "heapHits", heapHits.get(),
+                "diskHits", diskHits.get(),
+                "misses", misses.get(),
+                "heapEvictions", heapEvictions.get()
+        );
+    }
+
+    private record DiskEntry(long offset, int dimensions) {
+    }
+}
@@ -1,27 +1,59 @@
 package com.flutter.DataPreprocessingService.service.embedding;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.vector.VectorSegmentStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Upstage의 임베딩 API와 통신하는 서비스 클래스.
+ *
+ * 같은 텍스트를 반복해서 임베딩하지 않도록 EmbeddingCache를 먼저 조회한다.
+ * 검색된 청크의 임베딩은 색인 시 저장한 벡터 세그먼트에서 청크 ID로 먼저 찾는다.
  */
 @Service
+@RequiredArgsConstructor
 public class EmbeddingService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmbeddingService.class);
+    private static final String QUERY_MODEL = "solar-embedding-1-large-query";
+    private static final String PASSAGE_MODEL = "solar-embedding-1-large-passage";
+
+    private final EmbeddingCache embeddingCache;
+    private final VectorSegmentStore vectorSegmentStore;
 
     @Value("${upstage.api.url}")
     private String upstageApiUrl;
@@ -29,7 +61,45 @@ public class EmbeddingService {
     @Value("${upstage.api.key}")
     private String upstageApiKey;
 
+    // Upstage 임베딩 API는 한 요청에 여러 입력을 받을 수 있으므로 개수/토큰 한도 안에서 묶어서 보낸다.
+    @Value("${upstage.embedding.batch.max-inputs:100}")
+    private int batchMaxInputs;
+
+    @Value("${upstage.embedding.batch.max-tokens:100000}")
+    private int batchMaxTokens;
+
+    @Value("${upstage.embedding.batch.parallelism:4}")
+    private int batchParallelism;
+
+    // 응답 파싱 시 embedding 배열의 초기 크기로 사용
+    @Value("${embedding.dimensions:4096}")
+    private int embeddingDimensions;
+
     private final RestTemplate restTemplate = new RestTemplate();
+    private WebClient webClient;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private ExecutorService batchExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(batchParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "embedding-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        webClient = WebClient.builder()
+                .baseUrl(upstageApiUrl)
+                .defaultHeader("Authorization", "Bearer " + upstageApiKey)
+                .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
 
     /**
      * 쿼리에 대한 임베딩을 생성합니다.
@@ -37,8 +107,28 @@ public class EmbeddingService {
      * @param query 임베딩할 쿼리
      * @return 쿼리 임베딩 벡터
      */
-    public List<Double> getQueryEmbedding(String query) {
-        return getEmbedding(query, "solar-embedding-1-large-query");
+    public Embedding getQueryEmbedding(String query) {
+        return getCachedEmbedding(query, QUERY_MODEL);
+    }
+
+    /**
+     * getQueryEmbedding의 논블로킹 버전. 캐시에 없으면 WebClient로 요청하며, 응답을 기다리는 동안 스레드를 점유하지 않습니다.
+     *
+     * @param query 임베딩할 쿼리
+     * @return 쿼리 임베딩 벡터
+     */
+    public Mono<Embedding> getQueryEmbeddingAsync(String query) {
+        return Mono.defer(() -> {
+            String key = embeddingCache.keyOf(QUERY_MODEL, query);
+            Optional<Embedding> cached = embeddingCache.get(key);
+            if (cached.isPresent()) {
+                return Mono.just(cached.get());
+            }
+            return requestEmbeddingsAsync(List.of(query), QUERY_MODEL).map(embeddings -> {
+                embeddingCache.put(key, embeddings[0]);
+                return embeddings[0];
+            });
+        });
     }
 
     /**
@@ -47,8 +137,249 @@ public class EmbeddingService {
      * @param passage 임베딩할 문서 내용
      * @return 문서 임베딩 벡터
      */
-    public List<Double> getPassageEmbedding(String passage) {
-        return getEmbedding(passage, "solar-embedding-1-large-passage");
+    public Embedding getPassageEmbedding(String passage) {
+        return getCachedEmbedding(passage, PASSAGE_MODEL);
+    }
+
+    /**
+     * 여러 문서의 임베딩을 배치 요청으로 생성합니다.
+     *
+     * 캐시에 없는 입력만 개수/토큰 한도 안에서 요청 단위로 묶고, 여러 요청을 동시에 보냅니다.
+     *
+     * @param passages 임베딩할 문서 내용 목록
+     * @return 입력과 같은 순서의 문서 임베딩 벡터 목록
+     */
+    public List<Embedding> getPassageEmbeddings(List<String> passages) {
+        PassageLookup lookup = lookupPassages(passages);
+        if (!lookup.missingPassages().isEmpty()) {
+            fill(lookup, getEmbeddings(lookup.missingPassages(), PASSAGE_MODEL));
+        }
+        return lookup.embeddings();
+    }
+
+    /**
+     * getPassageEmbeddings의 논블로킹 버전. 캐시에 없는 입력만 WebClient로 요청합니다.
+     *
+     * @param passages 임베딩할 문서 내용 목록
+     * @return 입력과 같은 순서의 문서 임베딩 벡터 목록
+     */
+    public Mono<List<Embedding>> getPassageEmbeddingsAsync(List<String> passages) {
+        return Mono.defer(() -> {
+            PassageLookup lookup = lookupPassages(passages);
+            if (lookup.missingPassages().isEmpty()) {
+                return Mono.just(lookup.embeddings());
+            }
+            return getEmbeddingsAsync(lookup.missingPassages(), PASSAGE_MODEL).map(generated -> {
+                fill(lookup, generated);
+                return lookup.embeddings();
+            });
+        });
+    }
+
+    /**
+     * 캐시에서 문서 임베딩을 찾고, 없는 입력의 위치와 캐시 키를 모읍니다.
+     */
+    private PassageLookup lookupPassages(List<String> passages) {
+        PassageLookup lookup = new PassageLookup(new ArrayList<>(passages.size()), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (String passage : passages) {
+            String key = embeddingCache.keyOf(PASSAGE_MODEL, passage);
+            Optional<Embedding> cached = embeddingCache.get(key);
+            if (cached.isPresent()) {
+                lookup.embeddings().add(cached.get());
+                continue;
+            }
+            lookup.missingPositions().add(lookup.embeddings().size());
+            lookup.missingPassages().add(passage);
+            lookup.missingKeys().add(key);
+            lookup.embeddings().add(null);
+        }
+        return lookup;
+    }
+
+    /**
+     * 새로 생성한 임베딩을 캐시에 저장하고 비어 있던 자리에 채웁니다.
+     */
+    private void fill(PassageLookup lookup, List<Embedding> generated) {
+        for (int i = 0; i < generated.size(); i++) {
+            embeddingCache.put(lookup.missingKeys().get(i), generated.get(i));
+            lookup.embeddings().set(lookup.missingPositions().get(i), generated.get(i));
+        }
+    }
+
+    /**
+     * 검색된 청크들의 임베딩을 한 번에 구합니다.
+     * 임베딩은 _source에서 제외되어 검색 결과로 전송되지 않으므로, 색인 시 저장한 벡터 세그먼트에서 청크 ID로 찾고
+     * 세그먼트에 없는 청크(세그먼트 저장 전이거나 임베딩 없이 저장된 청크)만 chunk 내용으로 임베딩 캐시를 거쳐 생성합니다.
+     *
+     * @param documents 검색 결과 청크 목록
+     * @return 청크와 같은 순서의 임베딩 벡터 목록
+     */
+    public List<Embedding> resolvePassageEmbeddings(List<ChunkHit> documents) {
+        List<Embedding> embeddings = storedEmbeddingsOf(documents);
+        List<ChunkHit> missing = missingOf(documents, embeddings);
+        if (missing.isEmpty()) {
+            return embeddings;
+        }
+        return fillMissing(embeddings, getPassageEmbeddings(contentsOf(missing)));
+    }
+
+    /**
+     * resolvePassageEmbeddings의 논블로킹 버전.
+     */
+    public Mono<List<Embedding>> resolvePassageEmbeddingsAsync(List<ChunkHit> documents) {
+        return Mono.defer(() -> {
+            List<Embedding> embeddings = storedEmbeddingsOf(documents);
+            List<ChunkHit> missing = missingOf(documents, embeddings);
+            if (missing.isEmpty()) {
+                return Mono.just(embeddings);
+            }
+            return getPassageEmbeddingsAsync(contentsOf(missing)).map(generated -> fillMissing(embeddings, generated));
+        });
+    }
+
+    /**
+     * 벡터 세그먼트에서 청크 ID로 임베딩을 찾습니다. 찾지 못한 자리는 null로 남깁니다.
+     */
+    private List<Embedding> storedEmbeddingsOf(List<ChunkHit> documents) {
+        List<Embedding> embeddings = new ArrayList<>(documents.size());
+        for (ChunkHit document : documents) {
+            embeddings.add(vectorSegmentStore.findEmbedding(document.fileName(), document.id()).orElse(null));
+        }
+        return embeddings;
+    }
+
+    private static List<ChunkHit> missingOf(List<ChunkHit> documents, List<Embedding> embeddings) {
+        List<ChunkHit> missing = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            if (embeddings.get(i) == null) {
+                missing.add(documents.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            logger.debug("벡터 세그먼트에 없는 청크 {}개는 임베딩 캐시/API로 구함", missing.size());
+        }
+        return missing;
+    }
+
+    /**
+     * 비어 있는 자리를 생성한 임베딩으로 순서대로 채웁니다.
+     */
+    private static List<Embedding> fillMissing(List<Embedding> embeddings, List<Embedding> generated) {
+        int next = 0;
+        for (int i = 0; i < embeddings.size(); i++) {
+            if (embeddings.get(i) == null) {
+                embeddings.set(i, generated.get(next++));
+            }
+        }
+        return embeddings;
+    }
+
+    private static List<String> contentsOf(List<ChunkHit> documents) {
+        List<String> contents = new ArrayList<>(documents.size());
+        for (ChunkHit document : documents) {
+            String content = document.chunk();
+            if (content == null || content.trim().isEmpty()) {
+                throw new IllegalStateException("문서 내용이 비어 있습니다.");
+            }
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    /**
+     * 캐시에 있으면 그대로 사용하고, 없으면 API로 생성한 뒤 캐시에 저장합니다.
+     */
+    private Embedding getCachedEmbedding(String input, String model) {
+        String key = embeddingCache.keyOf(model, input);
+        Optional<Embedding> cached = embeddingCache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Embedding embedding = getEmbedding(input, model);
+        embeddingCache.put(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * 입력을 배치로 나누어 동시에 요청하고, 결과를 입력 순서대로 모읍니다.
+     */
+    private List<Embedding> getEmbeddings(List<String> inputs, String model) {
+        if (inputs.isEmpty()) {
+            return List.of();
+        }
+
+        Embedding[] results = new Embedding[inputs.size()];
+        List<int[]> batches = packBatches(inputs);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(batches.size());
+        for (int[] batch : batches) {
+            int from = batch[0];
+            int to = batch[1];
+            futures.add(CompletableFuture.runAsync(() -> {
+                Embedding[] embeddings = requestEmbeddings(inputs.subList(from, to), model);
+                System.arraycopy(embeddings, 0, results, from, embeddings.length);
+            }, batchExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IllegalStateException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("임베딩 생성 중 오류 발생", e.getCause());
+        }
+        logger.debug("임베딩 {}건을 {}개 요청으로 생성", inputs.size(), batches.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * getEmbeddings의 논블로킹 버전. 배치 요청을 최대 batchParallelism개까지 동시에 보내고 입력 순서대로 모읍니다.
+     */
+    private Mono<List<Embedding>> getEmbeddingsAsync(List<String> inputs, String model) {
+        if (inputs.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        List<int[]> batches = packBatches(inputs);
+        return Flux.fromIterable(batches)
+                .flatMapSequential(batch -> requestEmbeddingsAsync(inputs.subList(batch[0], batch[1]), model), batchParallelism)
+                .collectList()
+                .map(results -> {
+                    List<Embedding> embeddings = new ArrayList<>(inputs.size());
+                    for (Embedding[] result : results) {
+                        embeddings.addAll(Arrays.asList(result));
+                    }
+                    logger.debug("임베딩 {}건을 {}개 요청으로 생성 (비동기)", inputs.size(), batches.size());
+                    return embeddings;
+                });
+    }
+
+    /**
+     * 연속된 입력을 요청당 최대 개수와 추정 토큰 수를 넘지 않도록 [from, to) 구간으로 나눕니다.
+     * 한도를 넘는 단일 입력은 단독 요청으로 보냅니다.
+     */
+    private List<int[]> packBatches(List<String> inputs) {
+        List<int[]> batches = new ArrayList<>();
+        int from = 0;
+        int tokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            int inputTokens = estimateTokens(inputs.get(i));
+            boolean full = i - from >= batchMaxInputs || tokens + inputTokens > batchMaxTokens;
+            if (i > from && full) {
+                batches.add(new int[]{from, i});
+                from = i;
+                tokens = 0;
+            }
+            tokens += inputTokens;
+        }
+        batches.add(new int[]{from, inputs.size()});
+        return batches;
+    }
+
+    /**
+     * 한글은 대략 글자당 1토큰 이상이므로 글자 수를 보수적인 토큰 추정치로 사용합니다.
+     */
+    private static int estimateTokens(String input) {
+        return Math.max(1, input.length());
     }
 
     /**
@@ -58,7 +389,18 @@ public class EmbeddingService {
      * @param model 사용하려는 임베딩 모델
      * @return 임베딩 벡터
      */
-    private List<Double> getEmbedding(String input, String model) {
+    private Embedding getEmbedding(String input, String model) {
+        return requestEmbeddings(List.of(input), model)[0];
+    }
+
+    /**
+     * Upstage의 임베딩 API에 입력 배열을 한 번에 보내 임베딩을 생성합니다.
+     *
+     * @param inputs 임베딩할 입력 텍스트 목록
+     * @param model  사용하려는 임베딩 모델
+     * @return 입력과 같은 순서의 임베딩 벡터 목록
+     */
+    private Embedding[] requestEmbeddings(List<String> inputs, String model) {
         String endpoint = upstageApiUrl + "/v1/solar/embeddings";
 
         try {
@@ -70,27 +412,118 @@ public class EmbeddingService {
             // 요청 본문 생성
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("model", model);
-            requestBody.put("input", input);
+            requestBody.put("input", inputs);
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-            // API 호출
-            ResponseEntity<Map> response = restTemplate.exchange(endpoint, HttpMethod.POST, entity, Map.class);
-
-            // 응답에서 임베딩 추출
-            if (response.getBody() != null && response.getBody().containsKey("data")) {
-                List<Map<String, Object>> data = (List<Map<String, Object>>) response.getBody().get("data");
-                if (!data.isEmpty() && data.get(0).containsKey("embedding")) {
-                    // 올바른 타입으로 변환
-                    return ((List<?>) data.get(0).get("embedding")).stream()
-                            .map(value -> ((Number) value).doubleValue())  // Number로 변환 후 doubleValue 호출
-                            .collect(Collectors.toList());
-                }
-            }
-            throw new IllegalStateException("임베딩 생성 실패: 응답이 올바르지 않습니다.");
+            // API 호출 (응답을 Map으로 변환하지 않고 스트리밍 파서로 바로 float[]에 읽어 들인다)
+            Embedding[] embeddings = restTemplate.execute(endpoint, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(entity),
+                    response -> parseEmbeddings(response.getBody(), inputs.size()));
+
+            return requireComplete(embeddings);
         } catch (Exception e) {
-            logger.error("임베딩 생성 중 오류 발생: ", e);
+            logger.error("임베딩 생성 중 오류 발생 (입력 {}건): ", inputs.size(), e);
             throw new IllegalStateException("임베딩 생성 중 오류 발생", e);
         }
     }
+
+    /**
+     * requestEmbeddings의 논블로킹 버전. 응답 본문을 모두 받은 뒤 같은 스트리밍 파서로 읽습니다.
+     * (WebClient의 기본 디코더는 메모리 한도가 256KB라 배치 응답을 담지 못하므로 DataBuffer를 직접 합칩니다.)
+     */
+    private Mono<Embedding[]> requestEmbeddingsAsync(List<String> inputs, String model) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("input", inputs);
+
+        return webClient.post()
+                .uri("/v1/solar/embeddings")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(DataBufferUtils::join)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("임베딩 생성 실패: 응답이 올바르지 않습니다.")))
+                .map(buffer -> {
+                    try (InputStream body = buffer.asInputStream(true)) {
+                        return requireComplete(parseEmbeddings(body, inputs.size()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .doOnError(e -> logger.error("임베딩 생성 중 오류 발생 (입력 {}건): ", inputs.size(), e))
+                .onErrorMap(e -> new IllegalStateException("임베딩 생성 중 오류 발생", e));
+    }
+
+    private static Embedding[] requireComplete(Embedding[] embeddings) {
+        if (embeddings == null || Arrays.asList(embeddings).contains(null)) {
+            throw new IllegalStateException("임베딩 생성 실패: 응답이 올바르지 않습니다.");
+        }
+        return embeddings;
+    }
+
+    /**
+     * 임베딩 응답의 data 배열을 읽습니다. data 항목의 index가 입력 순서를 나타냅니다.
+     *
+     * 예: {"data": [{"object": "embedding", "index": 0, "embedding": [0.01, ...]}], "model": ..., "usage": {...}}
+     */
+    private Embedding[] parseEmbeddings(InputStream body, int expectedCount) throws IOException {
+        Embedding[] embeddings = new Embedding[expectedCount];
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("임베딩 생성 실패: 응답이 올바르지 않습니다.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !"data".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                int position = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int index = position++;
+                    float[] values = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        parser.nextToken();
+                        if ("index".equals(name)) {
+                            index = parser.getIntValue();
+                        } else if ("embedding".equals(name)) {
+                            values = readFloats(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (values == null || index < 0 || index >= expectedCount) {
+                        throw new IllegalStateException("임베딩 생성 실패: 응답 항목이 올바르지 않습니다. (index " + index + ")");
+                    }
+                    embeddings[index] = Embedding.of(values);
+                }
+            }
+        }
+        return embeddings;
+    }
+
+    private float[] readFloats(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalStateException("임베딩 생성 실패: embedding 값이 배열이 아닙니다.");
+        }
+        float[] values = new float[embeddingDimensions];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = parser.getFloatValue();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * 캐시 조회 결과. embeddings의 캐시에 없던 자리는 null이며 fill로 채웁니다.
+     */
+    private record PassageLookup(List<Embedding> embeddings, List<Integer> missingPositions,
+                                 List<String> missingPassages, List<String> missingKeys) {
+    }
 }
@@ -0,0 +1,133 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 하나의 인제스트 작업 동안 BulkIndexWriter로 보낸 문서를 추적하는 세션.
+ *
+ * close()는 남은 문서를 즉시 전송하고, 이 세션에서 추가한 문서가 모두 저장(또는 최종 실패)될 때까지 기다린다.
+ * replaceDocumentsOf로 대상을 지정하면 close() 때 그 문서 중 이 세션에서 저장하지 않은 문서를 지우고, 지운 문서 ID를 콜백으로 알린다.
+ * 여러 스레드에서 동시에 index()를 호출해도 안전하다.
+ */
+public class BulkIndexSession implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIndexSession.class);
+
+    private final BulkIndexWriter writer;
+    private final String indexName;
+    private final Set<String> indexedIds = new HashSet<>();
+
+    private String replaceField;
+    private String replaceValue;
+    private Consumer<Collection<String>> onReplaced;
+    private int pending;
+    private long indexed;
+    private long failed;
+
+    BulkIndexSession(BulkIndexWriter writer, String indexName) {
+        this.writer = writer;
+        this.indexName = indexName;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * 문서를 벌크 큐에 추가한다. 같은 ID로 다시 추가하면 덮어쓴다.
+     */
+    public void index(String id, Object document) {
+        synchronized (this) {
+            indexedIds.add(id);
+        }
+        writer.add(this, id, document);
+    }
+
+    /**
+     * 세션 종료 시 field 값이 value인 문서 중 이 세션에서 저장하지 않은 문서를 지우도록 지정한다.
+     * 문서를 다시 청킹해 청크 수가 줄었을 때 이전 청킹에서 남은 청크를 정리하는 데 쓴다.
+     * 저장에 실패한 문서가 있거나 저장한 문서가 없으면 지우지 않는다.
+     *
+     * @param onReplaced 지운 문서 ID를 받는 콜백 (벡터 인덱스 등 Elasticsearch 밖의 사본 정리용)
+     */
+    public synchronized void replaceDocumentsOf(String field, String value, Consumer<Collection<String>> onReplaced) {
+        this.replaceField = field;
+        this.replaceValue = value;
+        this.onReplaced = onReplaced;
+    }
+
+    public synchronized long getIndexedCount() {
+        return indexed;
+    }
+
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    synchronized void operationAdded() {
+        pending++;
+    }
+
+    synchronized void operationCompleted(boolean success) {
+        pending--;
+        if (success) {
+            indexed++;
+        } else {
+            failed++;
+        }
+        if (pending == 0) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        writer.flush();
+        try {
+            awaitCompletion();
+            deleteReplacedDocuments();
+        } finally {
+            writer.endIngest(indexName);
+        }
+        logger.info("벌크 세션 종료: {} (저장 {}건, 실패 {}건)", indexName, getIndexedCount(), getFailedCount());
+    }
+
+    private synchronized void deleteReplacedDocuments() {
+        if (replaceField == null) {
+            return;
+        }
+        if (pending > 0 || failed > 0 || indexedIds.isEmpty()) {
+            logger.warn("저장되지 않은 문서가 있어 이전 문서를 지우지 않음: {}={} (미완료 {}건, 실패 {}건)",
+                    replaceField, replaceValue, pending, failed);
+            return;
+        }
+        List<String> deletedIds = writer.deleteOthers(indexName, replaceField, replaceValue, indexedIds);
+        if (!deletedIds.isEmpty()) {
+            onReplaced.accept(deletedIds);
+        }
+    }
+
+    private synchronized void awaitCompletion() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(writer.awaitTimeoutSeconds());
+        try {
+            while (pending > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    logger.error("벌크 세션 대기 시간 초과: {} (미완료 {}건)", indexName, pending);
+                    return;
+                }
+                wait(remainingMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BulkIngester 기반의 공용 Elasticsearch 벌크 writer.
+ *
+ * 문서를 건건이 index 요청으로 보내지 않고 크기/개수/시간 기준으로 모아서 보내며,
+ * 동시에 전송 중인 벌크 요청 수를 제한하고 거부된 항목은 백오프 후 재시도한다.
+ * 대량 인제스트가 진행되는 동안에는 인덱스의 refresh 주기를 늘려 색인 부하를 줄인다.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkIndexWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIndexWriter.class);
+    // 이전 문서를 지울 때 한 번에 조회/삭제하는 문서 수
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final IndexGeneration indexGeneration;
+
+    @Value("${elasticsearch.bulk.max-operations:500}")
+    private int maxOperations;
+
+    @Value("${elasticsearch.bulk.max-size-mb:5}")
+    private long maxSizeMb;
+
+    @Value("${elasticsearch.bulk.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${elasticsearch.bulk.max-concurrent-requests:2}")
+    private int maxConcurrentRequests;
+
+    @Value("${elasticsearch.bulk.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${elasticsearch.bulk.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${elasticsearch.bulk.ingest-refresh-interval:30s}")
+    private String ingestRefreshInterval;
+
+    @Value("${elasticsearch.bulk.default-refresh-interval:1s}")
+    private String defaultRefreshInterval;
+
+    @Value("${elasticsearch.bulk.await-timeout-seconds:300}")
+    private long awaitTimeoutSeconds;
+
+    private final Map<String, Integer> activeIngests = new HashMap<>();
+    private BulkIngester<PendingOperation> ingester;
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    void init() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ingester = BulkIngester.of(b -> b
+                .client(elasticsearchClient)
+                .maxOperations(maxOperations)
+                .maxSize(maxSizeMb * 1024 * 1024)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .flushInterval(flushIntervalMs, TimeUnit.MILLISECONDS)
+                .listener(new RetryingListener()));
+    }
+
+    @PreDestroy
+    void close() {
+        ingester.close();
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * 인덱스에 대한 벌크 세션을 연다. 세션이 하나라도 열려 있는 동안 해당 인덱스의 refresh 주기가 늘어난다.
+     *
+     * @param indexName 대상 인덱스
+     * @return 세션 (close 시 남은 문서를 모두 전송하고 완료를 기다린다)
+     */
+    public BulkIndexSession openSession(String indexName) {
+        beginIngest(indexName);
+        return new BulkIndexSession(this, indexName);
+    }
+
+    void add(BulkIndexSession session, String id, Object document) {
+        BulkOperation operation = BulkOperation.of(op -> op
+                .index(idx -> idx
+                        .index(session.getIndexName())
+                        .id(id)
+                        .document(document)));
+        session.operationAdded();
+        ingester.add(operation, new PendingOperation(session, operation, 0));
+    }
+
+    void flush() {
+        ingester.flush();
+    }
+
+    /**
+     * field 값이 value인 문서 중 keepIds에 없는 문서를 지운다. 세션의 refresh 전에 호출되므로 세대 증가와 함께 검색에서 빠진다.
+     * 지울 문서 ID를 먼저 조회한 뒤 ID로 지우므로, 호출한 쪽은 실제로 지운 문서 ID를 받아 다른 사본에서도 정리할 수 있다.
+     *
+     * @return 지운 문서 ID (실패하면 그때까지 지운 ID)
+     */
+    List<String> deleteOthers(String indexName, String field, String value, Collection<String> keepIds) {
+        List<String> deletedIds = new ArrayList<>();
+        try {
+            while (true) {
+                SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                        .index(indexName)
+                        .size(DELETE_BATCH_SIZE)
+                        .source(src -> src.fetch(false))
+                        .query(q -> q.bool(b -> b
+                                .filter(f -> f.term(t -> t.field(field).value(value)))
+                                .mustNot(m -> m.ids(ids -> ids.values(new ArrayList<>(keepIds)))))), Void.class);
+                List<String> staleIds = response.hits().hits().stream().map(Hit::id).toList();
+                if (staleIds.isEmpty()) {
+                    break;
+                }
+                // 다음 조회에서 이미 지운 문서가 다시 나오지 않도록 삭제 후 refresh한다
+                DeleteByQueryResponse deleted = elasticsearchClient.deleteByQuery(d -> d
+                        .index(indexName)
+                        .conflicts(Conflicts.Proceed)
+                        .refresh(true)
+                        .query(q -> q.ids(ids -> ids.values(staleIds))));
+                deletedIds.addAll(staleIds);
+                // 동시 수정으로 하나도 지우지 못했으면 같은 문서만 반복 조회하게 되므로 멈춘다
+                if (staleIds.size() < DELETE_BATCH_SIZE || deleted.deleted() == null || deleted.deleted() == 0) {
+                    break;
+                }
+            }
+            logger.info("이전 문서 삭제: {}={} ({}건)", field, value, deletedIds.size());
+        } catch (Exception e) {
+            logger.warn("이전 문서 삭제 실패: {}={} ({}건 삭제 후 중단)", field, value, deletedIds.size(), e);
+        }
+        return deletedIds;
+    }
+
+    long awaitTimeoutSeconds() {
+        return awaitTimeoutSeconds;
+    }
+
+    private synchronized void beginIngest(String indexName) {
+        if (activeIngests.merge(indexName, 1, Integer::sum) == 1) {
+            updateRefreshInterval(indexName, ingestRefreshInterval);
+        }
+    }
+
+    /**
+     * 세션 종료 시 호출된다. 다른 세션이 남아 있어도 이 세션의 문서가 바로 검색되도록 refresh한 뒤 인덱스 세대를 올린다.
+     */
+    synchronized void endIngest(String indexName) {
+        if (activeIngests.merge(indexName, -1, Integer::sum) <= 0) {
+            activeIngests.remove(indexName);
+            updateRefreshInterval(indexName, defaultRefreshInterval);
+        }
+        try {
+            elasticsearchClient.indices().refresh(r -> r.index(indexName));
+        } catch (Exception e) {
+            logger.warn("인덱스 refresh 실패: {}", indexName, e);
+        }
+        indexGeneration.advance(indexName);
+    }
+
+    private void updateRefreshInterval(String indexName, String interval) {
+        try {
+            elasticsearchClient.indices().putSettings(p -> p
+                    .index(indexName)
+                    .settings(s -> s.refreshInterval(t -> t.time(interval))));
+            logger.info("인덱스 {} refresh_interval 변경: {}", indexName, interval);
+        } catch (Exception e) {
+            logger.warn("인덱스 {} refresh_interval 변경 실패: {}", indexName, interval, e);
+        }
+    }
+
+    private void retryOrFail(PendingOperation pending, String reason) {
+        if (pending.attempt() < maxRetries) {
+            long delay = retryBackoffMs << pending.attempt();
+            logger.warn("벌크 항목 재시도 예정 ({}ms 후, {}회차): {}", delay, pending.attempt() + 1, reason);
+            retryScheduler.schedule(() -> ingester.add(pending.operation(), pending.nextAttempt()), delay, TimeUnit.MILLISECONDS);
+        } else {
+            logger.error("벌크 항목 저장 최종 실패: {}", reason);
+            pending.session().operationCompleted(false);
+        }
+    }
+
+    private static boolean isRetryable(BulkResponseItem item) {
+        return item.status() == 429 || item.status() == 503;
+    }
+
+    /**
+     * 벌크 응답을 확인하여 성공 항목을 완료 처리하고, 거부된 항목은 재시도한다.
+     */
+    private class RetryingListener implements BulkListener<PendingOperation> {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<PendingOperation> contexts) {
+            logger.debug("벌크 요청 {} 전송: {}건", executionId, contexts.size());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<PendingOperation> contexts, BulkResponse response) {
+            List<BulkResponseItem> items = response.items();
+
+            // 세션 완료(→ 세대 증가)보다 먼저 알리도록 성공한 문서 ID를 모아서 통지한 뒤 완료 처리한다
+            Map<String, List<String>> writtenIds = new HashMap<>();
+            for (BulkResponseItem item : items) {
+                if (item.error() == null) {
+                    writtenIds.computeIfAbsent(item.index(), index -> new ArrayList<>()).add(item.id());
+                }
+            }
+            writtenIds.forEach(indexGeneration::documentsWritten);
+
+            for (int i = 0; i < contexts.size(); i++) {
+                PendingOperation pending = contexts.get(i);
+                BulkResponseItem item = items.get(i);
+                if (item.error() == null) {
+                    pending.session().operationCompleted(true);
+                } else if (isRetryable(item)) {
+                    retryOrFail(pending, item.error().reason());
+                } else {
+                    logger.error("벌크 항목 저장 실패. ID: {}, 원인: {}", item.id(), item.error().reason());
+                    pending.session().operationCompleted(false);
+                }
+            }
+            logger.info("벌크 요청 {} 완료: {}건 (took {}ms)", executionId, contexts.size(), response.took());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<PendingOperation> contexts, Throwable failure) {
+            logger.error("벌크 요청 {} 전송 실패: {}건", executionId, contexts.size(), failure);
+            for (PendingOperation pending : contexts) {
+                retryOrFail(pending, String.valueOf(failure.getMessage()));
+            }
+        }
+    }
+
+    private record PendingOperation(BulkIndexSession session, BulkOperation operation, int attempt) {
+
+        PendingOperation nextAttempt() {
+            return new PendingOperation(session, operation, attempt + 1);
+        }
+    }
+}
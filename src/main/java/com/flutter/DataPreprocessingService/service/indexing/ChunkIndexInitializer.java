@@ -0,0 +1,140 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.GetIndexTemplateResponse;
+import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
+import co.elastic.clients.elasticsearch.indices.put_index_template.IndexTemplateMapping;
+import co.elastic.clients.json.JsonData;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 애플리케이션 시작 시 청크 인덱스의 인덱스 템플릿과 임베딩 필드(dense_vector) 매핑을 등록한다.
+ *
+ * 템플릿(elasticsearch/chunk-index-template.json)은 chunk에 nori 분석기, 필터용 keyword 서브필드,
+ * date 타입 판매일자, best_compression 코덱을 지정하고 조회하지 않는 필드는 색인하지 않는다.
+ * 템플릿 버전은 매핑의 _meta.template_version이며, 클러스터의 템플릿보다 새 버전일 때만 덮어쓴다.
+ * 템플릿은 새로 만드는 인덱스에만 적용되므로, 기존 인덱스가 이전 버전이면 재색인이 필요하다는 경고를 남긴다.
+ *
+ * 동적 매핑에 맡기면 임베딩 배열이 일반 float 필드로 매핑되므로, 첫 문서가 들어오기 전에 명시적으로 매핑을 추가한다.
+ * 벡터 인덱스 종류(embedding.index-options.type)를 int8_hnsw로 두면 Elasticsearch가 kNN 그래프를
+ * int8로 양자화해 메모리를 약 1/4로 줄인다 (Elasticsearch 8.12 이상).
+ */
+@Component
+@RequiredArgsConstructor
+public class ChunkIndexInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkIndexInitializer.class);
+    private static final String TEMPLATE_RESOURCE = "elasticsearch/chunk-index-template.json";
+    private static final String TEMPLATE_VERSION_KEY = "template_version";
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    @Value("${spring.elasticsearch.index-name}")
+    private String indexName;
+
+    @Value("${elasticsearch.template.name:documents-template}")
+    private String templateName;
+
+    @Value("${embedding.dimensions:4096}")
+    private int embeddingDimensions;
+
+    @Value("${embedding.index-options.type:hnsw}")
+    private String indexOptionsType;
+
+    @Value("${embedding.index-options.m:16}")
+    private int indexOptionsM;
+
+    @Value("${embedding.index-options.ef-construction:100}")
+    private int indexOptionsEfConstruction;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long templateVersion = -1;
+        try {
+            templateVersion = installIndexTemplate();
+        } catch (Exception e) {
+            logger.warn("인덱스 템플릿 {} 등록 실패", templateName, e);
+        }
+
+        try {
+            boolean exists = elasticsearchClient.indices().exists(e -> e.index(indexName)).value();
+            if (!exists) {
+                elasticsearchClient.indices().create(c -> c.index(indexName));
+                logger.info("인덱스 생성: {}", indexName);
+            } else {
+                warnIfOutdated(templateVersion);
+            }
+
+            elasticsearchClient.indices().putMapping(m -> m
+                    .index(indexName)
+                    .properties("embedding", p -> p.denseVector(v -> v
+                            .dims(embeddingDimensions)
+                            .index(true)
+                            .similarity("cosine")
+                            .indexOptions(o -> o
+                                    .type(indexOptionsType)
+                                    .m(indexOptionsM)
+                                    .efConstruction(indexOptionsEfConstruction)))));
+            logger.info("인덱스 {}에 embedding(dense_vector, {}차원, {}) 매핑 등록 완료", indexName, embeddingDimensions, indexOptionsType);
+        } catch (Exception e) {
+            logger.warn("인덱스 {} 임베딩 매핑 등록 실패", indexName, e);
+        }
+    }
+
+    /**
+     * 클래스패스의 템플릿을 읽어 클러스터의 템플릿보다 새 버전이면 등록한다.
+     *
+     * @return 애플리케이션의 템플릿 버전
+     */
+    private long installIndexTemplate() throws IOException {
+        IndexTemplateMapping template;
+        try (InputStream json = new ClassPathResource(TEMPLATE_RESOURCE).getInputStream()) {
+            template = IndexTemplateMapping.of(t -> t.withJson(json));
+        }
+        long version = template.mappings().meta().get(TEMPLATE_VERSION_KEY).to(Long.class);
+
+        Long installedVersion = null;
+        if (elasticsearchClient.indices().existsIndexTemplate(e -> e.name(templateName)).value()) {
+            GetIndexTemplateResponse response = elasticsearchClient.indices().getIndexTemplate(g -> g.name(templateName));
+            installedVersion = response.indexTemplates().isEmpty() ? null : response.indexTemplates().get(0).indexTemplate().version();
+        }
+        if (installedVersion != null && installedVersion >= version) {
+            logger.info("인덱스 템플릿 {}은 이미 최신 버전입니다 (v{})", templateName, installedVersion);
+            return version;
+        }
+
+        elasticsearchClient.indices().putIndexTemplate(p -> p
+                .name(templateName)
+                .indexPatterns(indexName)
+                .priority(100)
+                .version(version)
+                .template(template));
+        logger.info("인덱스 템플릿 {} 등록 완료 (v{} -> v{})", templateName, installedVersion, version);
+        return version;
+    }
+
+    /**
+     * 기존 인덱스가 현재 템플릿 버전보다 이전 매핑으로 만들어졌으면 경고한다.
+     */
+    private void warnIfOutdated(long templateVersion) throws IOException {
+        if (templateVersion < 0) {
+            return;
+        }
+        IndexMappingRecord mapping = elasticsearchClient.indices().getMapping(g -> g.index(indexName)).get(indexName);
+        JsonData indexVersion = mapping == null ? null : mapping.mappings().meta().get(TEMPLATE_VERSION_KEY);
+        if (indexVersion == null || indexVersion.to(Long.class) < templateVersion) {
+            logger.warn("인덱스 {}가 템플릿 v{} 이전 매핑으로 생성되었습니다. 새 매핑을 적용하려면 재색인이 필요합니다.",
+                    indexName, templateVersion);
+        }
+    }
+}
@@ -2,16 +2,15 @@ package com.flutter.DataPreprocessingService.service.indexing;
 
 import com.flutter.DataPreprocessingService.entity.DocumentMetadata;
 import com.flutter.DataPreprocessingService.repository.document_meta.DocumentMetadataRepository;
-import com.flutter.DataPreprocessingService.service.pdf_parse.PdfParsingService;
-import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.flutter.DataPreprocessingService.service.ingestion.IngestionPipelineService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,8 +20,8 @@ public class ElasticsearchIndexingService {
 
     private static final Logger logger = LoggerFactory.getLogger(ElasticsearchIndexingService.class);
     private final DocumentMetadataRepository documentMetadataRepository;
-    private final PdfParsingService pdfParsingService;
-    private final ElasticsearchClient elasticsearchClient;
+    private final IngestionPipelineService ingestionPipelineService;
+    private final BulkIndexWriter bulkIndexWriter;
 
     @Value("${spring.elasticsearch.index-name}")
     private String indexName;
@@ -35,27 +34,18 @@ public class ElasticsearchIndexingService {
         List<DocumentMetadata> pendingDocuments = documentMetadataRepository.findByChunkingStatusNot(DocumentMetadata.ChunkingStatus.COMPLETED);
 
         for (DocumentMetadata document : pendingDocuments) {
-            try {
+            try (BulkIndexSession session = openBulkSession()) {
                 logger.info("문서 청킹 시작: {}", document.getFilePath());
-                List<File> chunkedFiles = pdfParsingService.chunkPdf(document.getFilePath(), 50);
+                IngestionPipelineService.IngestionResult result = ingestionPipelineService.run(document, 50, (rangeIndex, parsedResult) -> {
+                    logger.info("문서 파싱 완료, Elasticsearch에 저장 시작");
+                    saveToElasticsearch(parsedResult, document, session);
+                });
 
-                for (File chunk : chunkedFiles) {
-                    Map<String, Object> parsedResult = pdfParsingService.analyzeDocumentWithUpstage(chunk.getAbsolutePath());
-
-                    if (parsedResult != null && !parsedResult.isEmpty()) {
-                        logger.info("문서 파싱 완료, Elasticsearch에 저장 시작");
-                        saveToElasticsearch(parsedResult, document);
-
-                        if (chunk.delete()) {
-                            logger.info("청크 파일 삭제 성공: {}", chunk.getAbsolutePath());
-                        } else {
-                            logger.error("청크 파일 삭제 실패: {}", chunk.getAbsolutePath());
-                        }
-                    } else {
-                        logger.error("API 호출 실패로 인해 청크 파일을 삭제하지 않음: {}", chunk.getAbsolutePath());
-                    }
+                // 실패한 구간이 있으면 완료로 바꾸지 않아 다음 처리 때 다시 시도한다
+                if (!result.isComplete()) {
+                    logger.warn("일부 구간 처리 실패, 다음 처리 때 다시 시도: {} (실패 {}개)", document.getFilePath(), result.failedRanges());
+                    continue;
                 }
-
                 document.setChunkingStatus(DocumentMetadata.ChunkingStatus.COMPLETED);
                 documentMetadataRepository.save(document);
                 logger.info("문서 청킹 및 인덱싱 완료: {}", document.getFilePath());
@@ -67,35 +57,42 @@ public class ElasticsearchIndexingService {
     }
 
     /**
-     * Elasticsearch에 데이터를 저장한다.
+     * 이 서비스가 사용하는 인덱스에 대한 벌크 세션을 연다.
      */
-    public void saveToElasticsearch(Map<String, Object> parsedResult, DocumentMetadata metadata) {
+    public BulkIndexSession openBulkSession() {
+        return bulkIndexWriter.openSession(indexName);
+    }
+
+    /**
+     * 파싱된 요소들을 벌크 세션에 추가하여 Elasticsearch에 저장한다.
+     */
+    public void saveToElasticsearch(Map<String, Object> parsedResult, DocumentMetadata metadata, BulkIndexSession session) {
         try {
             List<Map<String, Object>> elements = (List<Map<String, Object>>) parsedResult.get("elements");
             if (elements != null) {
+                // 판매일자는 청크 문서와 같이 date 타입에 맞게 정규화하고, 해석할 수 없으면 필드를 넣지 않는다
+                String saleStartDate = SaleDates.toIsoDate(metadata.getSaleStartDate());
+                String saleEndDate = SaleDates.toIsoDate(metadata.getSaleEndDate());
                 for (Map<String, Object> element : elements) {
-                    Map<String, Object> data = Map.of(
-                            "id", element.get("id"),
-                            "category", element.get("category"),
-                            "content", element.get("content"),
-                            "productName", metadata.getProductName(),
-                            "saleStartDate", metadata.getSaleStartDate(),
-                            "saleEndDate", metadata.getSaleEndDate(),
-                            "channel", metadata.getChannel(),
-                            "fileName", metadata.getFileName(),
-                            "uploadDate", metadata.getUploadDate()
-                    );
-
-                    // Elasticsearch 인덱스 요청
-                    elasticsearchClient.index(i -> i
-                            .index(indexName)
-                            .id(element.get("id").toString())
-                            .document(data)
-                    );
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("id", element.get("id"));
+                    data.put("category", element.get("category"));
+                    data.put("content", element.get("content"));
+                    data.put("productName", metadata.getProductName());
+                    if (saleStartDate != null) {
+                        data.put("saleStartDate", saleStartDate);
+                    }
+                    if (saleEndDate != null) {
+                        data.put("saleEndDate", saleEndDate);
+                    }
+                    data.put("channel", metadata.getChannel());
+                    data.put("fileName", metadata.getFileName());
+                    data.put("uploadDate", metadata.getUploadDate());
 
-                    logger.info("Elasticsearch에 데이터 저장 성공. ID: {}", element.get("id"));
+                    // 벌크 큐에 인덱스 요청 추가
+                    session.index(element.get("id").toString(), data);
                 }
-                logger.info("Elasticsearch에 모든 데이터 저장 성공");
+                logger.info("요소 {}개를 벌크 큐에 추가", elements.size());
             }
         } catch (Exception e) {
             logger.error("Elasticsearch에 데이터 저장 실패", e);
@@ -0,0 +1,69 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인덱스 내용이 바뀔 때마다 증가하는 세대 번호.
+ *
+ * 벌크 세션이 끝나고 refresh까지 마쳐 새 문서가 검색에 보이게 된 시점에 증가한다.
+ * 검색 결과 캐시는 이 번호를 키에 포함하므로, 세대가 바뀌면 이전 결과는 더 이상 적중하지 않는다.
+ * 문서 단위로 무효화해야 하는 캐시(답변 캐시 등)는 Listener를 등록해 저장된 문서 ID와 세대 증가를 통지받는다.
+ */
+@Component
+public class IndexGeneration {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexGeneration.class);
+
+    private final AtomicLong generation = new AtomicLong();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * 인덱스에 쓰기가 반영되었음을 알리고 새 세대 번호를 반환한다.
+     */
+    public long advance(String indexName) {
+        long next = generation.incrementAndGet();
+        logger.info("인덱스 {} 세대 증가: {}", indexName, next);
+        for (Listener listener : listeners) {
+            listener.generationAdvanced(indexName, next);
+        }
+        return next;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 벌크 요청에서 저장에 성공한 문서 ID를 알린다. 아직 refresh 전이므로 검색에는 세대가 증가한 뒤에 보인다.
+     */
+    public void documentsWritten(String indexName, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.documentsWritten(indexName, ids);
+        }
+    }
+
+    /**
+     * 인덱스 쓰기 통지를 받는 쪽.
+     */
+    public interface Listener {
+
+        void documentsWritten(String indexName, Collection<String> ids);
+
+        default void generationAdvanced(String indexName, long generation) {
+        }
+    }
+}
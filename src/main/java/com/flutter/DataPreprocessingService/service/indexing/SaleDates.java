@@ -0,0 +1,44 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * 업로드 시 입력된 판매일자를 인덱스 템플릿의 date 타입(strict_date)에 맞게 정규화한다.
+ * 청크 문서와 요소 문서가 같은 규칙으로 색인되도록 두 인덱싱 경로에서 함께 쓴다.
+ */
+public final class SaleDates {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleDates.class);
+    private static final List<DateTimeFormatter> FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.BASIC_ISO_DATE,
+            DateTimeFormatter.ofPattern("yyyy.MM.dd"),
+            DateTimeFormatter.ofPattern("yyyy/MM/dd"));
+
+    private SaleDates() {
+    }
+
+    /**
+     * 판매일자(yyyy-MM-dd, yyyyMMdd, yyyy.MM.dd, yyyy/MM/dd)를 yyyy-MM-dd로 바꾼다. 해석할 수 없으면 null.
+     */
+    public static String toIsoDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (DateTimeFormatter format : FORMATS) {
+            try {
+                return LocalDate.parse(value.strip(), format).toString();
+            } catch (DateTimeParseException ignored) {
+                // 다음 형식으로 시도
+            }
+        }
+        logger.warn("판매일자 형식을 해석할 수 없어 제외합니다: {}", value);
+        return null;
+    }
+}
@@ -0,0 +1,270 @@
+package com.flutter.DataPreprocessingService.service.ingestion;
+
+import com.flutter.DataPreprocessingService.entity.DocumentMetadata;
+import com.flutter.DataPreprocessingService.service.pdf_parse.PdfPageRange;
+import com.flutter.DataPreprocessingService.service.pdf_parse.PdfParsingService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PDF 분할 → Upstage 파싱 → 청킹/인덱싱 단계를 동시에 실행하는 인제스트 파이프라인.
+ *
+ * 각 단계는 크기가 제한된 큐로 연결되며 단계별 동시 실행 수를 따로 설정할 수 있다.
+ * 분할이 끝나기 전에 첫 구간의 파싱이 시작되고, 파싱이 끝난 구간은 곧바로 인덱싱되므로
+ * 뒤쪽 구간이 파싱되는 동안에도 앞쪽 구간의 청크는 검색할 수 있다.
+ * 한 단계의 워커가 비정상 종료되면 파이프라인을 중단하고, 앞 단계는 큐가 비기를 기다리지 않고 남은 구간을 건너뛴다.
+ */
+@Service
+@RequiredArgsConstructor
+public class IngestionPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipelineService.class);
+
+    private static final ParseTask SPLIT_DONE = new ParseTask(null);
+    private static final ParsedRange PARSE_DONE = new ParsedRange(-1, null, null);
+    // 큐가 가득 찼을 때 파이프라인 중단 여부를 확인하는 주기
+    private static final long PUT_CHECK_INTERVAL_MS = 500;
+
+    private final PdfParsingService pdfParsingService;
+
+    @Value("${ingestion.pipeline.parse-concurrency:3}")
+    private int parseConcurrency;
+
+    @Value("${ingestion.pipeline.index-concurrency:2}")
+    private int indexConcurrency;
+
+    @Value("${ingestion.pipeline.queue-capacity:4}")
+    private int queueCapacity;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final ExecutorService workerExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ingestion-worker-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 문서 하나에 대해 파이프라인을 실행하고 모든 구간이 처리될 때까지 기다린다.
+     *
+     * @param document      처리할 문서 메타데이터
+     * @param pagesPerRange 구간당 페이지 수
+     * @param handler       파싱이 끝난 구간을 청킹/인덱싱하는 콜백 (여러 스레드에서 동시에 호출된다)
+     * @return 구간 처리 결과
+     * @throws IOException PDF 분할에 실패한 경우
+     */
+    public IngestionResult run(DocumentMetadata document, int pagesPerRange, ParsedRangeHandler handler) throws IOException {
+        BlockingQueue<ParseTask> parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ParsedRange> indexQueue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger indexedRanges = new AtomicInteger();
+        AtomicInteger failedRanges = new AtomicInteger();
+        AtomicBoolean aborted = new AtomicBoolean();
+
+        List<Future<?>> parseWorkers = new ArrayList<>();
+        for (int i = 0; i < parseConcurrency; i++) {
+            parseWorkers.add(workerExecutor.submit(() -> abortOnFailure(aborted,
+                    () -> parseLoop(parseQueue, indexQueue, failedRanges, aborted))));
+        }
+        List<Future<?>> indexWorkers = new ArrayList<>();
+        for (int i = 0; i < indexConcurrency; i++) {
+            indexWorkers.add(workerExecutor.submit(() -> abortOnFailure(aborted,
+                    () -> indexLoop(indexQueue, handler, indexedRanges, failedRanges))));
+        }
+
+        int totalRanges = 0;
+        try {
+            totalRanges = pdfParsingService.splitPdf(document.getFilePath(), pagesPerRange, range -> {
+                if (!put(parseQueue, new ParseTask(range), aborted)) {
+                    range.close();
+                    failedRanges.incrementAndGet();
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(parseWorkers, indexWorkers);
+            throw new InterruptedIOException("문서 분할 중 인터럽트 발생: " + document.getFilePath());
+        } finally {
+            if (!Thread.currentThread().isInterrupted()) {
+                shutdownStage(parseQueue, SPLIT_DONE, parseWorkers, aborted);
+                shutdownStage(indexQueue, PARSE_DONE, indexWorkers, aborted);
+            }
+        }
+
+        IngestionResult result = new IngestionResult(totalRanges, indexedRanges.get(), failedRanges.get());
+        logger.info("인제스트 파이프라인 완료: {} (전체 {}개 구간, 인덱싱 {}개, 실패 {}개)",
+                document.getFilePath(), result.totalRanges(), result.indexedRanges(), result.failedRanges());
+        return result;
+    }
+
+    private void parseLoop(BlockingQueue<ParseTask> parseQueue, BlockingQueue<ParsedRange> indexQueue,
+                           AtomicInteger failedRanges, AtomicBoolean aborted) {
+        try {
+            while (true) {
+                ParseTask task = parseQueue.take();
+                if (task == SPLIT_DONE) {
+                    return;
+                }
+                PdfPageRange range = task.range();
+
+                // 파싱이 끝나면 성공 여부와 관계없이 구간 버퍼를 풀에 반납한다
+                Map<String, Object> parsedResult;
+                try (range) {
+                    parsedResult = pdfParsingService.analyzeDocumentWithUpstage(range);
+                } catch (Exception e) {
+                    logger.error("Upstage 파싱 실패: {}", range, e);
+                    parsedResult = null;
+                }
+
+                if (parsedResult == null || parsedResult.isEmpty()) {
+                    logger.error("API 호출 실패로 구간을 건너뜀: {}", range);
+                    failedRanges.incrementAndGet();
+                    continue;
+                }
+
+                logger.info("구간 {} 파싱 완료, 인덱싱 대기열에 추가", range.getIndex());
+                if (!put(indexQueue, new ParsedRange(range.getIndex(), range.toString(), parsedResult), aborted)) {
+                    logger.error("인덱싱 워커가 중단되어 구간을 건너뜀: {}", range);
+                    failedRanges.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void indexLoop(BlockingQueue<ParsedRange> indexQueue, ParsedRangeHandler handler,
+                           AtomicInteger indexedRanges, AtomicInteger failedRanges) {
+        try {
+            while (true) {
+                ParsedRange parsed = indexQueue.take();
+                if (parsed == PARSE_DONE) {
+                    return;
+                }
+
+                try {
+                    handler.handle(parsed.rangeIndex(), parsed.parsedResult());
+                    indexedRanges.incrementAndGet();
+                } catch (Exception e) {
+                    logger.error("구간 {} 청킹/인덱싱 실패: {}", parsed.rangeIndex(), parsed.description(), e);
+                    failedRanges.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 워커가 예외로 끝나면 파이프라인 중단을 표시해 다른 단계가 이 워커를 기다리지 않게 한다.
+     */
+    private static void abortOnFailure(AtomicBoolean aborted, Runnable loop) {
+        try {
+            loop.run();
+        } catch (RuntimeException | Error e) {
+            aborted.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * 큐에 넣는다. 큐가 가득 찬 동안 파이프라인이 중단되면 더 기다리지 않고 false를 반환한다.
+     */
+    private static <T> boolean put(BlockingQueue<T> queue, T item, AtomicBoolean aborted) throws InterruptedException {
+        while (!queue.offer(item, PUT_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            if (aborted.get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 워커 수만큼 종료 신호를 넣고 해당 단계의 워커가 모두 끝날 때까지 기다린다.
+     * 파이프라인이 중단되어 종료 신호를 넣을 수 없으면 남은 워커를 취소한다.
+     */
+    private <T> void shutdownStage(BlockingQueue<T> queue, T doneSignal, List<Future<?>> workers, AtomicBoolean aborted) {
+        try {
+            for (int i = 0; i < workers.size(); i++) {
+                if (!put(queue, doneSignal, aborted)) {
+                    workers.forEach(worker -> worker.cancel(true));
+                    break;
+                }
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    logger.error("인제스트 워커 비정상 종료", e.getCause());
+                } catch (CancellationException e) {
+                    logger.warn("파이프라인 중단으로 인제스트 워커 취소");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(worker -> worker.cancel(true));
+        }
+    }
+
+    @SafeVarargs
+    private static void cancelAll(List<Future<?>>... workerGroups) {
+        for (List<Future<?>> workers : workerGroups) {
+            workers.forEach(worker -> worker.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workerExecutor.shutdownNow();
+    }
+
+    /**
+     * 파싱이 끝난 구간을 처리하는 콜백.
+     */
+    @FunctionalInterface
+    public interface ParsedRangeHandler {
+        void handle(int rangeIndex, Map<String, Object> parsedResult) throws Exception;
+    }
+
+    /**
+     * 파이프라인 실행 결과.
+     *
+     * @param totalRanges   분할된 전체 구간 수
+     * @param indexedRanges 인덱싱까지 끝난 구간 수
+     * @param failedRanges  파싱 또는 인덱싱에 실패한 구간 수
+     */
+    public record IngestionResult(int totalRanges, int indexedRanges, int failedRanges) {
+
+        /**
+         * 모든 구간이 인덱싱까지 끝났는지 여부. 중단되어 처리되지 않은 구간이 있어도 false이다.
+         */
+        public boolean isComplete() {
+            return failedRanges == 0 && indexedRanges == totalRanges;
+        }
+    }
+
+    private record ParseTask(PdfPageRange range) {
+    }
+
+    private record ParsedRange(int rangeIndex, String description, Map<String, Object> parsedResult) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.flutter.DataPreprocessingService.service.kakao;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 카카오톡 스킬 콜백 응답을 처리하는 서비스.
+ *
+ * 스킬 서버는 5초 안에 응답하지 않으면 요청을 실패로 처리하므로, 콜백이 켜진 블록의 요청은 useCallback 응답을 바로 돌려주고
+ * 답변 생성은 전용 작업 풀에서 수행한 뒤 요청의 callbackUrl로 최종 응답을 POST한다.
+ * 답변 생성은 answer-timeout-ms까지만 기다리고, 넘기면 기한 안에 오류 안내를 대신 보낸다.
+ * 답변 생성 풀의 대기열도 크기가 정해져 있어, 답변 스레드가 모두 묶여 대기열이 차면 바쁨 안내를 바로 보낸다.
+ * callbackUrl은 1분 동안만 유효하므로 전송 기한(deadline-seconds) 안에서만 지수 백오프로 재시도하고,
+ * 4xx 응답(만료, 중복 사용 등)은 재시도하지 않는다. 작업 큐가 가득 차면 submit이 false를 반환하고 호출하는 쪽은 바쁨 안내를 바로 돌려준다
+ * (동기로 처리하면 5초 제한을 넘기고 요청 스레드까지 묶이므로 하지 않는다).
+ */
+@Service
+public class KakaoCallbackService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KakaoCallbackService.class);
+    private static final String ERROR_TEXT = "오류가 발생했습니다. 다시 시도해주세요.";
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong answerTimeouts = new AtomicLong();
+    private final AtomicLong answerRejected = new AtomicLong();
+
+    @Value("${kakao.callback.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kakao.callback.pool-size:8}")
+    private int poolSize;
+
+    @Value("${kakao.callback.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${kakao.callback.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${kakao.callback.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    @Value("${kakao.callback.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${kakao.callback.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${kakao.callback.deadline-seconds:55}")
+    private long deadlineSeconds;
+
+    @Value("${kakao.callback.answer-timeout-ms:45000}")
+    private long answerTimeoutMs;
+
+    @Value("${kakao.callback.ack-text:답변을 준비하고 있어요. 잠시만 기다려주세요.}")
+    private String ackText;
+
+    @Value("${kakao.callback.busy-text:지금 문의가 많아 답변을 준비하지 못했어요. 잠시 후 다시 질문해주세요.}")
+    private String busyText;
+
+    private ThreadPoolExecutor workers;
+    // 답변 생성은 별도 스레드에서 수행해 작업 스레드가 시간 제한을 걸고 기다릴 수 있게 한다
+    private ThreadPoolExecutor answerWorkers;
+    private RestTemplate restTemplate;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "kakao-callback-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // 시간 초과 시 cancel(true)로 인터럽트해도 소켓 I/O 중인 답변 생성은 멈추지 않아 스레드가 계속 묶일 수 있다.
+        // 취소된 작업도 스레드가 꺼낼 때까지 대기열에 남으므로, 대기열을 풀 크기로 제한하고 넘치면 바쁨 안내로 응답한다
+        AtomicInteger answerThreadNumber = new AtomicInteger();
+        answerWorkers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "kakao-answer-" + answerThreadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @PreDestroy
+    void close() {
+        workers.shutdownNow();
+        answerWorkers.shutdownNow();
+    }
+
+    /**
+     * 이 요청을 콜백 모드로 처리하는지 확인한다. 콜백 모드가 켜져 있고 요청에 callbackUrl이 있어야 한다.
+     */
+    public boolean usesCallback(String callbackUrl) {
+        return enabled && callbackUrl != null && !callbackUrl.isBlank();
+    }
+
+    /**
+     * 답변 생성을 작업 풀에 넣는다. 완료되면 답변(실패 시 오류 안내)을 callbackUrl로 전송한다.
+     *
+     * @param callbackUrl 요청의 userRequest.callbackUrl
+     * @param answer 답변 텍스트를 만드는 작업
+     * @return 작업을 받았으면 true (콜백 모드가 꺼져 있거나 큐가 가득 차면 false)
+     */
+    public boolean submit(String callbackUrl, Supplier<String> answer) {
+        if (!usesCallback(callbackUrl)) {
+            return false;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+        try {
+            workers.execute(() -> run(callbackUrl, answer, deadline));
+            submitted.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.warn("콜백 작업 큐가 가득 차 요청을 받지 않음 (대기 {}건)", workers.getQueue().size());
+            return false;
+        }
+    }
+
+    private void run(String callbackUrl, Supplier<String> answer, long deadline) {
+        deliver(callbackUrl, simpleTextResponse(awaitAnswer(answer, deadline)), deadline);
+    }
+
+    /**
+     * 답변 생성을 answer-timeout-ms(전송 기한이 더 가까우면 그 시점)까지 기다린다. 실패하거나 시간을 넘기면 오류 안내를,
+     * 답변 생성 풀의 대기열이 가득 차면 바쁨 안내를 반환한다.
+     */
+    private String awaitAnswer(Supplier<String> answer, long deadline) {
+        long timeoutNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(answerTimeoutMs), deadline - System.nanoTime());
+        Future<String> future;
+        try {
+            future = answerWorkers.submit(answer::get);
+        } catch (RejectedExecutionException e) {
+            answerRejected.incrementAndGet();
+            logger.warn("답변 생성 대기열이 가득 차 바쁨 안내를 전송 (실행 중 {}건, 대기 {}건)",
+                    answerWorkers.getActiveCount(), answerWorkers.getQueue().size());
+            return busyText;
+        }
+        try {
+            return future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            answerTimeouts.incrementAndGet();
+            logger.error("콜백 답변 생성 시간 초과 ({}ms), 오류 안내를 전송", TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+            return ERROR_TEXT;
+        } catch (ExecutionException e) {
+            logger.error("콜백 답변 생성 중 오류 발생", e.getCause());
+            return ERROR_TEXT;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return ERROR_TEXT;
+        }
+    }
+
+    /**
+     * 최종 응답을 callbackUrl로 전송한다. 연결 실패, 타임아웃, 5xx는 기한 안에서 max-attempts까지 재시도한다.
+     *
+     * @return 전송 성공 여부
+     */
+    boolean deliver(String callbackUrl, Map<String, Object> body, long deadline) {
+        for (int attempt = 1; ; attempt++) {
+            if (System.nanoTime() - deadline > 0) {
+                failed.incrementAndGet();
+                logger.error("콜백 전송 기한 초과로 전송하지 않음: {}", callbackUrl);
+                return false;
+            }
+            try {
+                restTemplate.postForEntity(callbackUrl, body, String.class);
+                delivered.incrementAndGet();
+                logger.info("콜백 전송 완료 ({}회차): {}", attempt, callbackUrl);
+                return true;
+            } catch (HttpClientErrorException e) {
+                failed.incrementAndGet();
+                logger.error("콜백 전송 거부 ({}): {}", e.getStatusCode(), e.getResponseBodyAsString());
+                return false;
+            } catch (RestClientException e) {
+                long delay = retryBackoffMs << (attempt - 1);
+                if (attempt >= maxAttempts || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadline > 0) {
+                    failed.incrementAndGet();
+                    logger.error("콜백 전송 최종 실패 ({}회 시도): {}", attempt, callbackUrl, e);
+                    return false;
+                }
+                retries.incrementAndGet();
+                logger.warn("콜백 전송 재시도 예정 ({}ms 후, {}회차): {}", delay, attempt + 1, e.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    failed.incrementAndGet();
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 콜백 모드 응답. 스킬 서버는 data.text를 먼저 보여주고 callbackUrl로 최종 응답이 오기를 기다린다.
+     */
+    public Map<String, Object> callbackAcknowledgement() {
+        return Map.of(
+                "version", "2.0",
+                "useCallback", true,
+                "data", Map.of("text", ackText)
+        );
+    }
+
+    /**
+     * 작업 큐가 가득 차 답변을 만들 수 없을 때 바로 돌려줄 응답.
+     */
+    public Map<String, Object> busyResponse() {
+        return simpleTextResponse(busyText);
+    }
+
+    /**
+     * 카카오톡 채널 응답 형식(simpleText)의 응답 본문을 만든다.
+     */
+    public static Map<String, Object> simpleTextResponse(String text) {
+        return Map.of(
+                "version", "2.0",
+                "template", Map.of("outputs", List.of(Map.of("simpleText", Map.of("text", text))))
+        );
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "submitted", submitted.get(),
+                "rejected", rejected.get(),
+                "delivered", delivered.get(),
+                "failed", failed.get(),
+                "retries", retries.get(),
+                "answerTimeouts", answerTimeouts.get(),
+                "answerRejected", answerRejected.get(),
+                "active", workers.getActiveCount(),
+                "queued", workers.getQueue().size()
+        );
+    }
+}
@@ -0,0 +1,196 @@
+package com.flutter.DataPreprocessingService.service.pdf_parse;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Upstage 문서 파싱 결과를 디스크에 보관하는 콘텐츠 주소 기반 캐시.
+ *
+ * 키는 페이지 구간 바이트와 파서 버전을 합친 SHA-256이므로, 같은 구간을 다시 처리하거나
+ * 일부 페이지만 바뀐 새 버전의 약관을 처리할 때 바뀌지 않은 구간은 네트워크 호출 없이 재사용된다.
+ * 값은 Smile 바이너리 포맷으로 저장되며, 전체 크기가 상한을 넘으면 오래 사용되지 않은 항목부터 지운다.
+ */
+@Component
+public class ParseResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParseResultCache.class);
+    private static final TypeReference<Map<String, Object>> RESULT_TYPE = new TypeReference<>() {
+    };
+    private static final String FILE_SUFFIX = ".smile";
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Value("${upstage.parse-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${upstage.parse-cache.dir:cache/parse}")
+    private String cacheDir;
+
+    @Value("${upstage.parse-cache.max-size-mb:1024}")
+    private long maxSizeMb;
+
+    @Value("${upstage.parse.version:document-parse}")
+    private String parserVersion;
+
+    private Path root;
+
+    @PostConstruct
+    void loadIndex() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        root = Paths.get(cacheDir);
+        Files.createDirectories(root);
+
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(path -> {
+                try {
+                    String key = path.getFileName().toString().replace(FILE_SUFFIX, "");
+                    long size = Files.size(path);
+                    entries.put(key, new CacheEntry(path, size, Files.getLastModifiedTime(path).toMillis()));
+                    totalBytes.addAndGet(size);
+                } catch (IOException e) {
+                    logger.warn("파싱 캐시 항목 로드 실패: {}", path, e);
+                }
+            });
+        }
+        logger.info("Upstage 파싱 캐시 로드 완료: {}개 항목, {} bytes", entries.size(), totalBytes.get());
+    }
+
+    /**
+     * 페이지 구간 바이트와 파서 버전으로 캐시 키를 만든다.
+     */
+    public String keyOf(PdfPageRange pageRange) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(parserVersion.getBytes(StandardCharsets.UTF_8));
+            pageRange.updateDigest(digest);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 알고리즘을 사용할 수 없습니다.", e);
+        }
+    }
+
+    public Optional<Map<String, Object>> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        try {
+            Map<String, Object> result = smileMapper.readValue(entry.path().toFile(), RESULT_TYPE);
+            long now = System.currentTimeMillis();
+            entries.put(key, new CacheEntry(entry.path(), entry.size(), now));
+            Files.setLastModifiedTime(entry.path(), FileTime.fromMillis(now));
+            hits.incrementAndGet();
+            return Optional.of(result);
+        } catch (IOException e) {
+            logger.warn("파싱 캐시 항목 읽기 실패, 항목을 제거합니다: {}", entry.path(), e);
+            remove(key);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, Map<String, Object> parsedResult) {
+        if (!enabled) {
+            return;
+        }
+        Path target = root.resolve(key.substring(0, 2)).resolve(key + FILE_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            smileMapper.writeValue(temp.toFile(), parsedResult);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long size = Files.size(target);
+            CacheEntry previous = entries.put(key, new CacheEntry(target, size, System.currentTimeMillis()));
+            totalBytes.addAndGet(previous == null ? size : size - previous.size());
+        } catch (IOException e) {
+            logger.warn("파싱 캐시 저장 실패: {}", target, e);
+            return;
+        }
+
+        if (totalBytes.get() > maxSizeMb * 1024 * 1024) {
+            evict();
+        }
+    }
+
+    /**
+     * 전체 크기가 상한의 90% 이하가 될 때까지 가장 오래 사용되지 않은 항목부터 삭제한다.
+     */
+    private synchronized void evict() {
+        long target = maxSizeMb * 1024 * 1024 * 9 / 10;
+        List<Map.Entry<String, CacheEntry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccess()));
+
+        for (Map.Entry<String, CacheEntry> candidate : candidates) {
+            if (totalBytes.get() <= target) {
+                break;
+            }
+            remove(candidate.getKey());
+            evictions.incrementAndGet();
+        }
+        logger.info("파싱 캐시 정리 완료: 현재 {} bytes", totalBytes.get());
+    }
+
+    private void remove(String key) {
+        CacheEntry removed = entries.remove(key);
+        if (removed == null) {
+            return;
+        }
+        totalBytes.addAndGet(-removed.size());
+        try {
+            Files.deleteIfExists(removed.path());
+        } catch (IOException e) {
+            logger.warn("파싱 캐시 파일 삭제 실패: {}", removed.path(), e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "entries", entries.size(),
+                "bytes", totalBytes.get(),
+                "hits", hits.get(),
+                "misses", misses.get(),
+                "evictions", evictions.get()
+        );
+    }
+
+    private record CacheEntry(Path path, long size, long lastAccess) {
+    }
+}
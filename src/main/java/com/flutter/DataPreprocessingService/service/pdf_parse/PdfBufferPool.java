@@ -0,0 +1,111 @@
+package com.flutter.DataPreprocessingService.service.pdf_parse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 분할된 PDF 구간을 담는 바이트 버퍼 풀.
+ *
+ * 구간마다 새 배열을 할당하지 않도록 사용이 끝난 버퍼를 재사용한다.
+ * 지나치게 커진 버퍼는 힙을 오래 점유하지 않도록 풀에 돌려놓지 않고 버린다.
+ */
+@Component
+public class PdfBufferPool {
+
+    private final BlockingQueue<PooledBuffer> freeBuffers;
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    public PdfBufferPool(@Value("${pdf.split.buffer-pool-size:8}") int poolSize,
+                         @Value("${pdf.split.buffer-initial-size-kb:1024}") int initialSizeKb,
+                         @Value("${pdf.split.buffer-max-retained-size-kb:16384}") int maxRetainedSizeKb) {
+        this.freeBuffers = new ArrayBlockingQueue<>(poolSize);
+        this.initialCapacity = initialSizeKb * 1024;
+        this.maxRetainedCapacity = maxRetainedSizeKb * 1024;
+    }
+
+    /**
+     * 비어 있는 버퍼를 하나 가져온다. 풀이 비어 있으면 새로 만든다.
+     */
+    public PooledBuffer acquire() {
+        PooledBuffer buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new PooledBuffer(this, initialCapacity);
+    }
+
+    private void release(PooledBuffer buffer) {
+        if (buffer.capacity() > maxRetainedCapacity) {
+            return;
+        }
+        buffer.reset();
+        freeBuffers.offer(buffer);
+    }
+
+    /**
+     * 풀에서 빌려온 버퍼. 내부 배열을 복사하지 않고 그대로 multipart 본문으로 보낼 수 있다.
+     */
+    public static final class PooledBuffer extends ByteArrayOutputStream {
+
+        private final PdfBufferPool pool;
+
+        private PooledBuffer(PdfBufferPool pool, int initialCapacity) {
+            super(initialCapacity);
+            this.pool = pool;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * 현재까지 기록된 바이트를 감싸는 Resource를 반환한다. 버퍼를 반납하기 전까지만 유효하다.
+         */
+        public Resource asResource(String fileName) {
+            byte[] bytes = buf;
+            int length = count;
+            return new AbstractResource() {
+                @Override
+                public String getFilename() {
+                    return fileName;
+                }
+
+                @Override
+                public long contentLength() {
+                    return length;
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(bytes, 0, length);
+                }
+
+                @Override
+                public String getDescription() {
+                    return "PDF page range [" + fileName + "]";
+                }
+            };
+        }
+
+        /**
+         * 현재까지 기록된 바이트를 다이제스트에 반영한다.
+         */
+        public void updateDigest(MessageDigest digest) {
+            digest.update(buf, 0, count);
+        }
+
+        /**
+         * 버퍼를 풀에 반납한다.
+         */
+        public void release() {
+            pool.release(this);
+        }
+    }
+}
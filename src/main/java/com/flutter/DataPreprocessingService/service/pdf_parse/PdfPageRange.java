@@ -0,0 +1,66 @@
+package com.flutter.DataPreprocessingService.service.pdf_parse;
+
+import org.springframework.core.io.Resource;
+
+import java.security.MessageDigest;
+
+/**
+ * 메모리 버퍼에 저장된 PDF 페이지 구간.
+ *
+ * 디스크에 임시 파일을 만들지 않고 Upstage multipart 요청의 본문으로 바로 사용된다.
+ * 처리가 끝나면 반드시 close()로 버퍼를 풀에 반납해야 한다.
+ */
+public final class PdfPageRange implements AutoCloseable {
+
+    private final int index;
+    private final int startPage;
+    private final int endPage;
+    private final String fileName;
+    private final PdfBufferPool.PooledBuffer buffer;
+
+    PdfPageRange(int index, int startPage, int endPage, String fileName, PdfBufferPool.PooledBuffer buffer) {
+        this.index = index;
+        this.startPage = startPage;
+        this.endPage = endPage;
+        this.fileName = fileName;
+        this.buffer = buffer;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getStartPage() {
+        return startPage;
+    }
+
+    public int getEndPage() {
+        return endPage;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public Resource asResource() {
+        return buffer.asResource(fileName);
+    }
+
+    public void updateDigest(MessageDigest digest) {
+        buffer.updateDigest(digest);
+    }
+
+    @Override
+    public void close() {
+        buffer.release();
+    }
+
+    @Override
+    public String toString() {
+        return fileName + " (pages " + startPage + "-" + endPage + ")";
+    }
+}
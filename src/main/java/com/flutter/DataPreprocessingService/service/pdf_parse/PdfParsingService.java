@@ -1,6 +1,10 @@
 package com.flutter.DataPreprocessingService.service.pdf_parse;
 
-import org.apache.pdfbox.multipdf.Splitter;
+import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
 import org.apache.pdfbox.text.PDFTextStripper;
@@ -8,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -19,11 +24,18 @@ import java.io.IOException;
 import java.util.*;
 
 @Service
+@RequiredArgsConstructor
 public class PdfParsingService {
 
+    private final PdfBufferPool pdfBufferPool;
+    private final ParseResultCache parseResultCache;
+
     @Value("${upstage.api.key}")
     private String upstageApiKey;
 
+    @Value("${pdf.split.max-main-memory-mb:64}")
+    private long maxMainMemoryMb;
+
     private static final Logger logger = LoggerFactory.getLogger(PdfParsingService.class);
 
     public Map<String, Object> parsePdf(String filePath) {
@@ -50,32 +62,87 @@ public class PdfParsingService {
         return parsedData;
     }
 
-    public List<File> chunkPdf(String filePath, int chunkSize) throws IOException {
-        List<File> chunkedFiles = new ArrayList<>();
+    /**
+     * PDF 파일을 chunkSize 페이지 단위로 분할하면서, 구간이 만들어지는 즉시 sink에 전달한다.
+     * 각 구간은 디스크에 쓰지 않고 풀에서 빌린 메모리 버퍼에 저장되며,
+     * 원본 문서는 임시 파일 기반 스크래치 영역으로 로드하여 대용량 문서도 힙 사용량이 제한된다.
+     *
+     * @param filePath  원본 PDF 경로
+     * @param chunkSize 구간당 페이지 수
+     * @param sink      생성된 구간을 받는 콜백 (큐가 가득 차면 블로킹될 수 있음)
+     * @return 생성된 구간 수
+     */
+    public int splitPdf(String filePath, int chunkSize, PageRangeSink sink) throws IOException, InterruptedException {
         File file = new File(filePath);
+        MemoryUsageSetting memoryUsageSetting = MemoryUsageSetting.setupMixed(maxMainMemoryMb * 1024L * 1024L);
+        int chunkIndex = 0;
 
-        try (PDDocument document = PDDocument.load(file)) {
-            Splitter splitter = new Splitter();
-            splitter.setSplitAtPage(chunkSize);
-
-            List<PDDocument> pages = splitter.split(document);
-            int chunkIndex = 0;
+        try (PDDocument document = PDDocument.load(file, memoryUsageSetting)) {
+            int numberOfPages = document.getNumberOfPages();
 
-            for (PDDocument chunk : pages) {
-                String chunkFileName = file.getParent() + File.separator + "chunk_" + chunkIndex + "_" + file.getName();
-                File chunkFile = new File(chunkFileName);
-                chunk.save(chunkFile);
-                chunkedFiles.add(chunkFile);
-                chunk.close();
+            for (int startPage = 0; startPage < numberOfPages; startPage += chunkSize) {
+                int endPage = Math.min(startPage + chunkSize, numberOfPages);
+                PdfBufferPool.PooledBuffer buffer = pdfBufferPool.acquire();
+
+                try (PDDocument chunk = new PDDocument()) {
+                    for (int page = startPage; page < endPage; page++) {
+                        chunk.importPage(document.getPage(page));
+                    }
+                    // 저장 시각 기반 문서 ID 대신 고정 ID를 사용해 같은 페이지는 항상 같은 바이트가 되도록 한다 (파싱 캐시 키)
+                    chunk.getDocument().getTrailer().setItem(COSName.ID, fixedDocumentId());
+                    chunk.save(buffer);
+                } catch (IOException | RuntimeException e) {
+                    buffer.release();
+                    throw e;
+                }
+
+                String chunkFileName = "chunk_" + chunkIndex + "_" + file.getName();
+                try {
+                    sink.accept(new PdfPageRange(chunkIndex, startPage + 1, endPage, chunkFileName, buffer));
+                } catch (InterruptedException | RuntimeException e) {
+                    // sink가 구간을 받지 못했으므로 버퍼는 아직 이쪽 소유다
+                    buffer.release();
+                    throw e;
+                }
                 chunkIndex++;
             }
         }
 
-        logger.info("PDF 파일을 {} 페이지씩 청킹 완료: {}개 파일 생성", chunkSize, chunkedFiles.size());
-        return chunkedFiles;
+        logger.info("PDF 파일을 {} 페이지씩 메모리에서 분할 완료: {}개 구간", chunkSize, chunkIndex);
+        return chunkIndex;
+    }
+
+    private static COSArray fixedDocumentId() {
+        COSArray id = new COSArray();
+        id.add(new COSString(new byte[16]));
+        id.add(new COSString(new byte[16]));
+        return id;
     }
 
     public Map<String, Object> analyzeDocumentWithUpstage(String filePath) {
+        return analyzeDocumentWithUpstage(new FileSystemResource(new File(filePath)));
+    }
+
+    /**
+     * 메모리에 있는 PDF 구간을 그대로 multipart 본문으로 보내 Upstage 문서 파싱을 수행한다.
+     * 같은 바이트의 구간을 이미 파싱한 적이 있으면 캐시된 결과를 반환한다.
+     */
+    public Map<String, Object> analyzeDocumentWithUpstage(PdfPageRange pageRange) {
+        String cacheKey = parseResultCache.keyOf(pageRange);
+        Optional<Map<String, Object>> cached = parseResultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            logger.info("Upstage 파싱 캐시 적중, API 호출 생략: {}", pageRange);
+            return cached.get();
+        }
+
+        Map<String, Object> result = analyzeDocumentWithUpstage(pageRange.asResource());
+        if (!result.isEmpty()) {
+            parseResultCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    private Map<String, Object> analyzeDocumentWithUpstage(Resource document) {
         RestTemplate restTemplate = new RestTemplate();
         String url = "https://api.upstage.ai/v1/document-ai/document-parse";
 
@@ -84,7 +151,7 @@ public class PdfParsingService {
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
 
         MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.add("document", new FileSystemResource(new File(filePath)));
+        body.add("document", document);
 
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
 
@@ -106,4 +173,12 @@ public class PdfParsingService {
             return Collections.emptyMap(); // 빈 맵 반환
         }
     }
+
+    /**
+     * 분할된 페이지 구간을 받아 다음 단계로 넘기는 콜백.
+     */
+    @FunctionalInterface
+    public interface PageRangeSink {
+        void accept(PdfPageRange pageRange) throws InterruptedException;
+    }
 }
@@ -0,0 +1,174 @@
+package com.flutter.DataPreprocessingService.service.prompt;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * LLM에 보낼 컨텍스트를 토큰 예산 안에서 구성한다.
+ *
+ * 청크 HTML을 텍스트로 바꾸고 순위 순서대로 예산이 찰 때까지 채운다. 이미 넣은 청크에 포함된 조각(청킹 시 다음 청크 앞 100자로
+ * 만든 오버랩 조각, 중복 청크)은 버리고, 새로 넣는 청크에 포함된 앞 순위 청크는 그 청크가 실제로 들어갈 때만 뺀다.
+ * 따라서 예산을 넘어 버려지는 하위 순위 청크 때문에 앞 순위 청크가 빠지지 않는다. 전달받은 목록은 이미 검색/리랭킹 순위대로 정렬되어 있으므로 그 순서를 점수 순서로 사용한다
+ * (리랭킹 후의 ChunkHit.score는 1차 검색 점수라 리랭킹 순서와 다르다).
+ * 토큰 수는 임베딩 배치와 같이 글자 수를 보수적인 추정치로 사용한다.
+ */
+@Component
+public class ContextPacker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContextPacker.class);
+    private static final String SEPARATOR = "\n\n";
+
+    private static final Pattern LINE_BREAK_TAG = Pattern.compile("(?i)<br\\s*/?>|</(p|div|tr|li|h[1-6]|table|caption)\\s*>");
+    private static final Pattern CELL_END_TAG = Pattern.compile("(?i)</t[dh]\\s*>");
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    // 오버랩 조각은 HTML을 글자 수로 자른 것이라 마지막 태그가 닫히지 않았을 수 있다
+    private static final Pattern UNCLOSED_TAG = Pattern.compile("<[^>]*$");
+    private static final Pattern SPACES = Pattern.compile("[ \\t\\x0B\\f\\r\\u00A0]+");
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n\\s*\\n+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Value("${prompt.context.max-tokens:4000}")
+    private int maxTokens;
+
+    /**
+     * 순위 순서의 청크로 예산 안의 컨텍스트를 만든다. 첫 청크 하나가 예산을 넘으면 예산 길이로 잘라서 넣는다.
+     *
+     * @param documents 순위 순서의 청크
+     * @return 컨텍스트 텍스트와 사용량
+     */
+    public PackedContext pack(List<ChunkHit> documents) {
+        List<Packed> packed = new ArrayList<>();
+        int droppedDuplicates = 0;
+        int droppedOverBudget = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            String text = toText(documents.get(i).chunk());
+            String normalized = normalize(text);
+            if (normalized.isEmpty() || packed.stream().anyMatch(chunk -> chunk.normalized().contains(normalized))) {
+                droppedDuplicates++;
+                continue;
+            }
+
+            // 이 청크에 그대로 들어 있는 앞 순위 청크는 이 청크가 실제로 들어갈 때만 뺀다
+            List<Packed> candidate = new ArrayList<>(packed.size() + 1);
+            int contained = 0;
+            for (Packed chunk : packed) {
+                if (normalized.contains(chunk.normalized())) {
+                    contained++;
+                } else {
+                    candidate.add(chunk);
+                }
+            }
+            candidate.add(new Packed(i, text, normalized, estimateTokens(text)));
+            if (usedTokens(candidate) > maxTokens) {
+                if (!packed.isEmpty()) {
+                    // 더 짧은 하위 순위 청크는 남은 예산에 들어갈 수 있으므로 계속 확인한다
+                    droppedOverBudget++;
+                    continue;
+                }
+                String truncated = text.substring(0, maxTokens);
+                candidate.set(0, new Packed(i, truncated, normalize(truncated), estimateTokens(truncated)));
+            }
+            packed = candidate;
+            droppedDuplicates += contained;
+        }
+
+        StringBuilder context = new StringBuilder();
+        List<String> packedIds = new ArrayList<>(packed.size());
+        for (Packed chunk : packed) {
+            if (!context.isEmpty()) {
+                context.append(SEPARATOR);
+            }
+            context.append(chunk.text());
+            packedIds.add(documents.get(chunk.index()).id());
+        }
+
+        PackedContext result = new PackedContext(context.toString(), maxTokens, usedTokens(packed), documents.size(),
+                packedIds, droppedDuplicates, droppedOverBudget);
+        logger.info("컨텍스트 구성: {}", result.usage());
+        return result;
+    }
+
+    private static int usedTokens(List<Packed> packed) {
+        int tokens = Math.max(0, packed.size() - 1) * estimateTokens(SEPARATOR);
+        for (Packed chunk : packed) {
+            tokens += chunk.tokens();
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return WHITESPACE.matcher(text).replaceAll("");
+    }
+
+    /**
+     * 청크 HTML을 텍스트로 바꾼다. 줄 단위 태그는 줄바꿈으로, 표 셀은 공백으로 구분한다.
+     */
+    static String toText(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = LINE_BREAK_TAG.matcher(html).replaceAll("\n");
+        text = CELL_END_TAG.matcher(text).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll("");
+        text = UNCLOSED_TAG.matcher(text).replaceAll("");
+        text = HtmlUtils.htmlUnescape(text);
+        text = SPACES.matcher(text).replaceAll(" ");
+        text = BLANK_LINES.matcher(text).replaceAll("\n");
+        return text.lines().map(String::strip).filter(line -> !line.isEmpty())
+                .reduce((a, b) -> a + "\n" + b).orElse("");
+    }
+
+    /**
+     * 한글은 대략 글자당 1토큰 이상이므로 글자 수를 보수적인 토큰 추정치로 사용한다.
+     */
+    static int estimateTokens(String text) {
+        return text.length();
+    }
+
+    /**
+     * 컨텍스트에 넣기로 한 청크. index는 전달받은 목록에서의 순위이다.
+     */
+    private record Packed(int index, String text, String normalized, int tokens) {
+    }
+
+    /**
+     * 구성된 컨텍스트와 사용량.
+     *
+     * @param context LLM에 보낼 컨텍스트 텍스트
+     * @param budgetTokens 토큰 예산
+     * @param usedTokens 컨텍스트의 추정 토큰 수
+     * @param candidates 전달받은 청크 수
+     * @param packedIds 컨텍스트에 들어간 청크 ID (순위 순서)
+     * @param droppedDuplicates 다른 청크에 포함되어 있거나 비어 있어 버린 청크 수
+     * @param droppedOverBudget 예산을 넘어 버린 청크 수
+     */
+    public record PackedContext(String context,
+                                int budgetTokens,
+                                int usedTokens,
+                                int candidates,
+                                List<String> packedIds,
+                                int droppedDuplicates,
+                                int droppedOverBudget) {
+
+        public Map<String, Object> usage() {
+            Map<String, Object> usage = new LinkedHashMap<>();
+            usage.put("budgetTokens", budgetTokens);
+            usage.put("contextTokens", usedTokens);
+            usage.put("candidates", candidates);
+            usage.put("packed", packedIds.size());
+            usage.put("droppedDuplicates", droppedDuplicates);
+            usage.put("droppedOverBudget", droppedOverBudget);
+            return usage;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.flutter.DataPreprocessingService.service.prompt;
 
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.List;
@@ -15,11 +22,17 @@ import java.util.Map;
 
 /**
  * LLM API와 통신하는 서비스 클래스.
+ *
+ * 컨텍스트는 ContextPacker가 토큰 예산 안에서 구성하고, 결과의 contextUsage에 추정 사용량과
+ * LLM이 보고한 실제 프롬프트 토큰 수(promptTokens)를 함께 담는다.
+ * 쿼리 임베딩을 함께 받는 메서드는 SemanticAnswerCache를 먼저 확인하여 비슷한 질문에 같은 청크가 선택되었으면 LLM을 호출하지 않는다.
  */
 @Service
+@RequiredArgsConstructor
 public class CreatePrompt {
 
     private static final Logger logger = LoggerFactory.getLogger(CreatePrompt.class);
+    static final String CHAT_COMPLETIONS_PATH = "/v1/solar/chat/completions";
 
     @Value("${upstage.api.url}")
     private String upstageApiUrl;
@@ -27,7 +40,19 @@ public class CreatePrompt {
     @Value("${upstage.api.key}")
     private String upstageApiKey;
 
+    private final ContextPacker contextPacker;
+    private final SemanticAnswerCache answerCache;
     private final RestTemplate restTemplate = new RestTemplate();
+    private WebClient webClient;
+
+    @PostConstruct
+    void init() {
+        webClient = WebClient.builder()
+                .baseUrl(upstageApiUrl)
+                .defaultHeader("Authorization", "Bearer " + upstageApiKey)
+                .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
 
     /**
      * LLM API를 호출하여 대화 응답을 생성하고 요청 쿼리, 본문, LLM 응답을 모두 포함한 결과를 반환한다.
@@ -36,40 +61,39 @@ public class CreatePrompt {
      * @param top5Documents 상위 5개의 리랭킹된 문서
      * @return LLM API 응답과 요청 쿼리, 본문을 함께 포함한 결과
      */
-    public Map<String, Object> generateResponse(String query, List<Map<String, Object>> top5Documents) {
-        String endpoint = upstageApiUrl + "/v1/solar/chat/completions";
+    public Map<String, Object> generateResponse(String query, List<ChunkHit> top5Documents) {
+        return generate(query, contextPacker.pack(top5Documents));
+    }
+
+    /**
+     * 답변 캐시를 거쳐 대화 응답을 생성한다. 상품명과 컨텍스트 청크가 같고 쿼리 임베딩이 충분히 가까운 이전 답변이 있으면 그대로 반환한다.
+     *
+     * @param query 사용자 쿼리
+     * @param productName 상품명 (상품 범위 검색이 아니면 null)
+     * @param queryEmbedding 리랭킹에 사용한 쿼리 임베딩
+     * @param top5Documents 리랭킹된 문서
+     * @return generateResponse와 같은 형식의 결과
+     */
+    public Map<String, Object> generateResponse(String query, String productName, Embedding queryEmbedding, List<ChunkHit> top5Documents) {
+        ContextPacker.PackedContext packed = contextPacker.pack(top5Documents);
+        return answerCache.get(queryEmbedding, productName, packed.packedIds(), () -> generate(query, packed));
+    }
+
+    private Map<String, Object> generate(String query, ContextPacker.PackedContext packed) {
+        String endpoint = upstageApiUrl + CHAT_COMPLETIONS_PATH;
         try {
             // HTTP 요청 헤더 설정
             HttpHeaders headers = new HttpHeaders();
             headers.set("Authorization", "Bearer " + upstageApiKey);
             headers.set("Content-Type", "application/json");
 
-            // 문서 컨텍스트 생성
-            StringBuilder contextBuilder = new StringBuilder();
-            for (Map<String, Object> doc : top5Documents) {
-                contextBuilder.append(doc.get("chunk")).append(" ");  // chunk 필드를 사용하여 컨텍스트 생성
-            }
-            String context = contextBuilder.toString().trim();
-
-            // 요청 메시지 생성
-            Map<String, Object> requestBody = Map.of(
-                    "model", "solar-1-mini-chat",  // 모델 설정
-                    "messages", List.of(
-                            Map.of("role", "system", "content", "당신은 사용자의 질문에 대해 제공된 청크 데이터에 기반하여 답변하는 LLM입니다. 주어진 청크 데이터 외의 내용을 답변에 포함하지 마세요. 그리고 제공된 청크 데이터를 최대한 활용해서 자세한 답변을 제공해주세요"),
-                            Map.of("role", "user", "content", "Context: " + context + ". Question: " + query)
-                    ),
-                    "stream", false
-            );
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBodyOf(query, packed, false), headers);
 
             // API 호출
             ResponseEntity<Map> response = restTemplate.postForEntity(endpoint, entity, Map.class);
 
-            // 결과 반환: 요청 쿼리, 본문, LLM 응답을 모두 포함
-            Map<String, Object> result = new HashMap<>();
-            result.put("llmResponse", response.getBody());
-
+            // 결과 반환: LLM 응답과 컨텍스트 토큰 사용량
+            Map<String, Object> result = resultOf(packed, response.getBody());
             logger.info("LLM 응답 생성 성공: {}", result);
             return result;
 
@@ -78,4 +102,85 @@ public class CreatePrompt {
             throw new IllegalStateException("LLM 응답 생성 중 오류 발생", e);
         }
     }
+
+    /**
+     * generateResponse의 논블로킹 버전. WebClient로 호출하므로 LLM 응답을 기다리는 동안 스레드를 점유하지 않는다.
+     *
+     * @param query 사용자 쿼리
+     * @param top5Documents 상위 5개의 리랭킹된 문서
+     * @return generateResponse와 같은 형식의 결과
+     */
+    public Mono<Map<String, Object>> generateResponseAsync(String query, List<ChunkHit> top5Documents) {
+        return generateAsync(query, contextPacker.pack(top5Documents));
+    }
+
+    /**
+     * 답변 캐시를 거치는 generateResponse의 논블로킹 버전.
+     */
+    public Mono<Map<String, Object>> generateResponseAsync(String query, String productName, Embedding queryEmbedding, List<ChunkHit> top5Documents) {
+        ContextPacker.PackedContext packed = contextPacker.pack(top5Documents);
+        return answerCache.getAsync(queryEmbedding, productName, packed.packedIds(), () -> generateAsync(query, packed));
+    }
+
+    private Mono<Map<String, Object>> generateAsync(String query, ContextPacker.PackedContext packed) {
+        return webClient.post()
+                .uri(CHAT_COMPLETIONS_PATH)
+                .bodyValue(requestBodyOf(query, packed, false))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(body -> {
+                    Map<String, Object> result = resultOf(packed, body);
+                    logger.info("LLM 응답 생성 성공: {}", result);
+                    return result;
+                })
+                .doOnError(e -> logger.error("LLM 응답 생성 중 오류 발생: ", e))
+                .onErrorMap(e -> new IllegalStateException("LLM 응답 생성 중 오류 발생", e));
+    }
+
+    /**
+     * generateResponse 결과의 LLM 응답에서 답변 텍스트(choices[0].message.content)를 꺼낸다.
+     *
+     * @param result generateResponse 결과
+     * @return 답변 텍스트 (없으면 null)
+     */
+    public static String answerTextOf(Map<String, Object> result) {
+        if (result.get("llmResponse") instanceof Map<?, ?> body
+                && body.get("choices") instanceof List<?> choices && !choices.isEmpty()
+                && choices.get(0) instanceof Map<?, ?> choice
+                && choice.get("message") instanceof Map<?, ?> message
+                && message.get("content") instanceof String content) {
+            return content;
+        }
+        return null;
+    }
+
+    /**
+     * LLM 응답과 컨텍스트 토큰 사용량을 담은 결과를 만든다. 실제 프롬프트 토큰 수는 응답의 usage.prompt_tokens에서 가져온다.
+     */
+    private static Map<String, Object> resultOf(ContextPacker.PackedContext packed, Map<?, ?> body) {
+        Map<String, Object> contextUsage = packed.usage();
+        if (body != null && body.get("usage") instanceof Map<?, ?> usage && usage.get("prompt_tokens") != null) {
+            contextUsage.put("promptTokens", usage.get("prompt_tokens"));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("llmResponse", body);
+        result.put("contextUsage", contextUsage);
+        return result;
+    }
+
+    /**
+     * 구성된 컨텍스트를 붙인 채팅 요청 본문을 만든다. 스트리밍 응답(StreamingPromptService)도 같은 프롬프트를 쓴다.
+     */
+    static Map<String, Object> requestBodyOf(String query, ContextPacker.PackedContext packed, boolean stream) {
+        // 요청 메시지 생성
+        return Map.of(
+                "model", "solar-1-mini-chat",  // 모델 설정
+                "messages", List.of(
+                        Map.of("role", "system", "content", "당신은 사용자의 질문에 대해 제공된 청크 데이터에 기반하여 답변하는 LLM입니다. 주어진 청크 데이터 외의 내용을 답변에 포함하지 마세요. 그리고 제공된 청크 데이터를 최대한 활용해서 자세한 답변을 제공해주세요"),
+                        Map.of("role", "user", "content", "Context: " + packed.context() + ". Question: " + query)
+                ),
+                "stream", stream
+        );
+    }
 }
@@ -0,0 +1,198 @@
+package com.flutter.DataPreprocessingService.service.prompt;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.indexing.IndexGeneration;
+import com.flutter.DataPreprocessingService.service.similarity.VectorMath;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 표현만 다른 같은 질문에 LLM 답변을 재사용하는 캐시.
+ *
+ * 항목은 (쿼리 임베딩, 상품명, 컨텍스트에 들어간 청크 ID, 답변)이다. 새 질문은 상품명과 청크 ID 집합이 같고
+ * 쿼리 임베딩의 코사인 유사도가 임계값 이상인 항목이 있으면 LLM을 호출하지 않고 그 답변을 받는다.
+ * 청크가 다시 색인되면(IndexGeneration 통지) 그 청크를 쓴 항목을 지운다. 저장은 되었지만 아직 refresh 전인 청크가 있거나
+ * 답변을 만드는 동안 색인이 일어났다면 이전 내용으로 만든 답변일 수 있으므로 저장하지 않는다.
+ * 항목 수가 상한을 넘으면 가장 오래 쓰지 않은 항목부터 제거한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SemanticAnswerCache implements IndexGeneration.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    private final IndexGeneration indexGeneration;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${prompt.answer-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${prompt.answer-cache.similarity-threshold:0.92}")
+    private double similarityThreshold;
+
+    @Value("${prompt.answer-cache.max-entries:500}")
+    private int maxEntries;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // 저장 응답은 받았지만 아직 refresh되지 않아 검색에는 이전 내용이 보이는 청크
+    private final Set<String> unrefreshedChunkIds = new HashSet<>();
+    private long nextEntryId;
+    private long writeSequence;
+
+    @PostConstruct
+    void init() {
+        indexGeneration.addListener(this);
+    }
+
+    /**
+     * 캐시에 맞는 답변이 있으면 반환하고, 없으면 답변을 생성해 저장한다.
+     *
+     * @param queryEmbedding 쿼리 임베딩
+     * @param productName 상품명 (없으면 null)
+     * @param chunkIds LLM 컨텍스트에 들어간 청크 ID
+     * @param generate 캐시에 없을 때 답변을 생성하는 호출
+     * @return 답변 결과
+     */
+    public Map<String, Object> get(Embedding queryEmbedding, String productName, List<String> chunkIds,
+                                   Supplier<Map<String, Object>> generate) {
+        Lookup lookup = lookup(queryEmbedding, productName, chunkIds);
+        if (lookup.answer() != null) {
+            return lookup.answer();
+        }
+        Map<String, Object> answer = generate.get();
+        store(lookup, answer);
+        return answer;
+    }
+
+    /**
+     * get의 논블로킹 버전. 캐시에 없을 때만 generate가 만든 Mono를 구독한다.
+     */
+    public Mono<Map<String, Object>> getAsync(Embedding queryEmbedding, String productName, List<String> chunkIds,
+                                              Supplier<Mono<Map<String, Object>>> generate) {
+        return Mono.defer(() -> {
+            Lookup lookup = lookup(queryEmbedding, productName, chunkIds);
+            if (lookup.answer() != null) {
+                return Mono.just(lookup.answer());
+            }
+            return generate.get().doOnNext(answer -> store(lookup, answer));
+        });
+    }
+
+    private Lookup lookup(Embedding queryEmbedding, String productName, List<String> chunkIds) {
+        if (!enabled || chunkIds.isEmpty() || chunkIds.stream().anyMatch(Objects::isNull)) {
+            return new Lookup(null, null, -1, null);
+        }
+        Key key = new Key(productName, Set.copyOf(chunkIds));
+        float[] query = queryEmbedding.normalized();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (entry.key().equals(key) && VectorMath.dot(query, entry.queryEmbedding()) >= similarityThreshold) {
+                    // 접근 순서 갱신
+                    entries.get(entry.id());
+                    hits.incrementAndGet();
+                    logger.info("답변 캐시 적중: 상품명={}, 청크 {}개", productName, chunkIds.size());
+                    return new Lookup(key, query, writeSequence, entry.answer());
+                }
+            }
+            misses.incrementAndGet();
+            return new Lookup(key, query, writeSequence, null);
+        }
+    }
+
+    private synchronized void store(Lookup lookup, Map<String, Object> answer) {
+        if (lookup.key() == null || answer == null) {
+            return;
+        }
+        if (lookup.writeSequence() != writeSequence || lookup.key().chunkIds().stream().anyMatch(unrefreshedChunkIds::contains)) {
+            logger.debug("답변 생성 중 색인이 있어 답변 캐시에 저장하지 않음");
+            return;
+        }
+        long id = nextEntryId++;
+        entries.put(id, new Entry(id, lookup.key(), lookup.queryEmbedding(), answer));
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 다시 색인된 청크를 쓴 답변을 지운다.
+     */
+    @Override
+    public synchronized void documentsWritten(String indexName, Collection<String> ids) {
+        writeSequence++;
+        unrefreshedChunkIds.addAll(ids);
+        Set<String> written = Set.copyOf(ids);
+        int removed = 0;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().key().chunkIds().stream().anyMatch(written::contains)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            invalidations.addAndGet(removed);
+            logger.info("청크 재색인으로 답변 캐시 항목 {}개 제거", removed);
+        }
+    }
+
+    /**
+     * refresh 후 세대가 증가하면 그때까지 저장된 청크는 검색에 보이므로 다시 캐시할 수 있다.
+     */
+    @Override
+    public synchronized void generationAdvanced(String indexName, long generation) {
+        unrefreshedChunkIds.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        int entryCount;
+        synchronized (this) {
+            entryCount = entries.size();
+        }
+        return Map.of(
+                "entries", entryCount,
+                "similarityThreshold", similarityThreshold,
+                "hits", hitCount,
+                "misses", missCount,
+                "hitRatio", total == 0 ? 0.0 : (double) hitCount / total,
+                "evictions", evictions.get(),
+                "invalidations", invalidations.get()
+        );
+    }
+
+    private record Key(String productName, Set<String> chunkIds) {
+    }
+
+    private record Entry(long id, Key key, float[] queryEmbedding, Map<String, Object> answer) {
+    }
+
+    private record Lookup(Key key, float[] queryEmbedding, long writeSequence, Map<String, Object> answer) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.flutter.DataPreprocessingService.service.rag;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
+import com.flutter.DataPreprocessingService.service.prompt.CreatePrompt;
+import com.flutter.DataPreprocessingService.service.search.ElasticsearchDocumentSearchService;
+import com.flutter.DataPreprocessingService.service.similarity.SimilarityService;
+import com.flutter.DataPreprocessingService.service.vector.ProductShardCache;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 검색 → 임베딩 → 리랭킹 → 답변 생성 과정을 논블로킹으로 수행하는 서비스.
+ *
+ * Elasticsearch는 비동기 클라이언트로, Upstage 임베딩/LLM API는 WebClient로 호출하므로
+ * 외부 응답을 기다리는 동안 스레드를 점유하지 않는다. 쿼리 임베딩과 1차 검색처럼 서로 의존하지 않는 단계는 동시에 보낸다.
+ * 결과 형식은 기존 동기 컨트롤러(ReRankingController, EnhancedSearchController)와 같다.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveRagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRagService.class);
+
+    private final ElasticsearchDocumentSearchService searchService;
+    private final EmbeddingService embeddingService;
+    private final SimilarityService similarityService;
+    private final ProductShardCache productShardCache;
+    private final CreatePrompt createPrompt;
+
+    /**
+     * 1차 검색 결과를 리랭킹하여 LLM 답변을 생성한다.
+     *
+     * @param query 검색 쿼리
+     * @param hybrid 하이브리드 검색 사용 여부 (BM25 + 벡터 RRF 상위 10개를 5개로, 아니면 BM25 상위 20개를 10개로 리랭킹)
+     * @return 리랭킹된 문서 목록과 LLM API 응답
+     */
+    public Mono<Map<String, Object>> answer(String query, boolean hybrid) {
+        return retrieval(query, hybrid)
+                .flatMap(retrieved -> generate(query, null, retrieved))
+                .map(generated -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("query", query);
+                    result.put("llmResponse", generated.llmResponse().toString());
+                    result.put("contents", generated.documents());
+                    return result;
+                });
+    }
+
+    /**
+     * 상품 범위에서 리랭킹된 문서로 LLM 답변을 생성한다.
+     * 상주 중인 상품 샤드가 있으면 샤드 안에서 전수 검색하고, 없으면 1차 검색 15개를 10개로 리랭킹한다.
+     *
+     * @param query 검색어
+     * @param productName 상품명
+     * @return 리랭킹된 문서 목록과 LLM API 응답
+     */
+    public Mono<Map<String, Object>> answerForProduct(String query, String productName) {
+        return retrievalForProduct(query, productName)
+                .flatMap(retrieved -> generate(query, productName, retrieved))
+                .map(generated -> {
+                    Map<String, Object> result = new HashMap<>();
+                    result.put("many", generated.documents().size());
+                    result.put("query", query);
+                    result.put("productName", productName);
+                    result.put("llmResponse", generated.llmResponse().toString());
+                    result.put("documents", generated.documents());
+                    return result;
+                });
+    }
+
+    /**
+     * answer의 검색/리랭킹 단계. LLM에 전달할 리랭킹된 청크를 반환한다.
+     */
+    public Mono<List<ChunkHit>> retrieve(String query, boolean hybrid) {
+        return retrieval(query, hybrid).map(Retrieved::documents);
+    }
+
+    /**
+     * answerForProduct의 검색/리랭킹 단계. LLM에 전달할 리랭킹된 청크를 반환한다.
+     */
+    public Mono<List<ChunkHit>> retrieveForProduct(String query, String productName) {
+        return retrievalForProduct(query, productName).map(Retrieved::documents);
+    }
+
+    private Mono<Retrieved> retrieval(String query, boolean hybrid) {
+        // 하이브리드 검색과 리랭킹이 같은 쿼리 임베딩을 쓰므로 한 번만 요청한다
+        Mono<Embedding> queryEmbedding = embeddingService.getQueryEmbeddingAsync(query).cache();
+        Mono<List<ChunkHit>> candidates = hybrid
+                ? queryEmbedding.flatMap(embedding -> searchService.searchDocumentsTopKByHybridAsync(query, embedding, 10))
+                : searchService.searchDocumentsTopKByKeywordAsync(query, 20);
+
+        return Mono.zip(candidates, queryEmbedding)
+                .flatMap(searched -> reRank(searched.getT2(), searched.getT1(), hybrid ? 5 : 10)
+                        .map(documents -> new Retrieved(searched.getT2(), documents)));
+    }
+
+    private Mono<Retrieved> retrievalForProduct(String query, String productName) {
+        return embeddingService.getQueryEmbeddingAsync(query)
+                .flatMap(queryEmbedding -> searchShard(productName, queryEmbedding)
+                        .flatMap(shardResults -> shardResults
+                                .map(Mono::just)
+                                .orElseGet(() -> searchService.searchDocumentsByQueryAndProductNameAsync(query, productName, 15)
+                                        .flatMap(documents -> reRank(queryEmbedding, documents, 10))))
+                        .map(documents -> new Retrieved(queryEmbedding, documents)));
+    }
+
+    /**
+     * 상품 샤드 검색은 샤드를 처음 올릴 때 디스크의 벡터 세그먼트를 읽느라 블로킹되고 전수 검색도 CPU를 쓰므로
+     * 이벤트 루프가 아닌 boundedElastic 스케줄러에서 수행한다.
+     */
+    private Mono<Optional<List<ChunkHit>>> searchShard(String productName, Embedding queryEmbedding) {
+        return Mono.fromCallable(() -> productShardCache.search(productName, queryEmbedding, 10))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 청크 임베딩(벡터 세그먼트와 캐시에 없는 것만 배치 요청)과 쿼리 임베딩의 유사도로 상위 k개를 고른다.
+     */
+    private Mono<List<ChunkHit>> reRank(Embedding queryEmbedding, List<ChunkHit> documents, int k) {
+        return embeddingService.resolvePassageEmbeddingsAsync(documents)
+                .map(passageEmbeddings -> similarityService.topK(queryEmbedding, passageEmbeddings, k).stream()
+                        .map(candidate -> documents.get(candidate.index()))
+                        .toList());
+    }
+
+    /**
+     * 답변 캐시를 거쳐 LLM 답변을 생성한다.
+     */
+    private Mono<Generated> generate(String query, String productName, Retrieved retrieved) {
+        List<ChunkHit> documents = retrieved.documents();
+        logger.info("Documents for LLM Input: {}", documents);
+        return createPrompt.generateResponseAsync(query, productName, retrieved.queryEmbedding(), documents)
+                .map(llmResponse -> new Generated(documents, llmResponse));
+    }
+
+    private record Retrieved(Embedding queryEmbedding, List<ChunkHit> documents) {
+    }
+
+    private record Generated(List<ChunkHit> documents, Map<String, Object> llmResponse) {
+    }
+}
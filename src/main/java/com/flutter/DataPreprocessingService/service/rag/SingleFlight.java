@@ -0,0 +1,113 @@
+package com.flutter.DataPreprocessingService.service.rag;
+
+import com.flutter.DataPreprocessingService.service.search.SearchResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 같은 질문이 동시에 들어오면 검색과 답변 생성을 한 번만 수행하고 결과를 함께 받게 하는 요청 병합기.
+ *
+ * 키는 요청 종류, 정규화한 검색어(검색 결과 캐시와 같은 규칙), 상품명이다. 먼저 들어온 요청이 계산하는 동안
+ * 같은 키로 들어온 요청은 그 결과(또는 예외)를 기다린다. 계산이 끝나면 키를 지우므로 결과를 보관하지는 않는다.
+ * 공유되는 결과는 여러 요청이 함께 읽으므로 호출하는 쪽에서 수정하면 안 된다.
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+
+    @Value("${rag.single-flight.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rag.single-flight.wait-timeout-seconds:120}")
+    private long waitTimeoutSeconds;
+
+    /**
+     * 같은 키의 계산이 진행 중이면 그 결과를 기다리고, 없으면 직접 계산한다.
+     *
+     * @param scope 요청 종류 (같은 질문이라도 처리 방식이 다르면 구분)
+     * @param query 검색어
+     * @param productName 상품명 (없으면 null)
+     * @param computation 검색과 답변 생성
+     * @return 계산 결과
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String query, String productName, Supplier<T> computation) {
+        if (!enabled) {
+            return computation.get();
+        }
+        Key key = new Key(scope, SearchResultCache.normalize(query), productName);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            logger.debug("진행 중인 같은 요청에 합류: {}", key);
+            return (T) await(running);
+        }
+
+        executions.incrementAndGet();
+        try {
+            T result = computation.get();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            failures.incrementAndGet();
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(waitTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("병합된 요청 처리 중 오류 발생", e.getCause());
+        } catch (TimeoutException e) {
+            waitTimeouts.incrementAndGet();
+            throw new IllegalStateException("병합된 요청의 결과 대기 시간 초과", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("병합된 요청의 결과 대기 중 인터럽트", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long executionCount = executions.get();
+        long coalescedCount = coalesced.get();
+        long total = executionCount + coalescedCount;
+        return Map.of(
+                "inFlight", inFlight.size(),
+                "executions", executionCount,
+                "coalesced", coalescedCount,
+                "coalescedRatio", total == 0 ? 0.0 : (double) coalescedCount / total,
+                "failures", failures.get(),
+                "waitTimeouts", waitTimeouts.get()
+        );
+    }
+
+    private record Key(String scope, String query, String productName) {
+    }
+}
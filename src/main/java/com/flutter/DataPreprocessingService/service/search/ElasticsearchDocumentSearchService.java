@@ -1,21 +1,40 @@
 package com.flutter.DataPreprocessingService.service.search;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.dto.search.ChunkSearchRequest;
 import com.flutter.DataPreprocessingService.repository.search.DocumentSearchRepository;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.embedding.EmbeddingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -28,38 +47,82 @@ public class ElasticsearchDocumentSearchService implements DocumentSearchReposit
     private static final Logger logger = LoggerFactory.getLogger(ElasticsearchDocumentSearchService.class);
 
     private final ElasticsearchClient elasticsearchClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final EmbeddingService embeddingService;
+    private final SearchResultCache searchResultCache;
+
+    // 하이브리드 검색에서 벡터 검색을 키워드 검색과 동시에 실행하기 위한 스레드 풀 (init에서 설정 크기로 만든다)
+    private ThreadPoolExecutor hybridSearchExecutor;
+
+    // 청크 문서만 대상으로 하기 위한 필터 (같은 인덱스에 요소 단위 문서도 있음)
+    private static final Query HAS_CHUNK = Query.of(q -> q.exists(e -> e.field("chunk")));
+    private static final int DEFAULT_SIZE = 10;
 
     @Value("${spring.elasticsearch.index-name}")
     private String indexName;
 
+    // Reciprocal Rank Fusion: score = Σ weight / (k + rank)
+    @Value("${search.hybrid.rrf-k:60}")
+    private int rrfK;
+
+    @Value("${search.hybrid.keyword-weight:1.0}")
+    private double keywordWeight;
+
+    @Value("${search.hybrid.vector-weight:1.0}")
+    private double vectorWeight;
+
+    // 각 검색에서 융합 대상으로 가져올 결과 수 (topK보다 작으면 topK 사용)
+    @Value("${search.hybrid.window-size:50}")
+    private int hybridWindowSize;
+
+    @Value("${search.hybrid.num-candidates:100}")
+    private int knnNumCandidates;
+
+    @Value("${search.hybrid.pool-size:8}")
+    private int hybridPoolSize;
+
+    @Value("${search.hybrid.queue-capacity:64}")
+    private int hybridQueueCapacity;
+
+    /**
+     * 하이브리드 검색 풀을 만든다. 풀과 대기열이 모두 차면 요청 스레드가 벡터 검색을 직접 실행하므로
+     * 스레드가 무한정 늘지 않고, 부하가 높을 때는 키워드 검색과 순차 실행으로 물러난다.
+     */
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        hybridSearchExecutor = new ThreadPoolExecutor(hybridPoolSize, hybridPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hybridQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hybrid-search-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hybridSearchExecutor.shutdownNow();
+    }
+
     @Override
-    public List<Map<String, Object>> searchDocumentsByKeyword(String query) {
-        try {
-            // 각 필드에 대한 검색 조건을 설정합니다.
-            Query chunkQuery = Query.of(m -> m.match(t -> t.field("chunk").query(query)));
-            Query fileNameQuery = Query.of(m -> m.match(t -> t.field("fileName").query(query)));
-            Query productNameQuery = Query.of(m -> m.match(t -> t.field("productName").query(query)));
-            Query channelQuery = Query.of(m -> m.match(t -> t.field("channel").query(query)));
-
-            // Elasticsearch 검색 쿼리 구성
-            SearchResponse<ObjectNode> response = elasticsearchClient.search(s -> s
-                            .index(indexName)
-                            .query(q -> q
-                                    .bool(b -> b
-                                            .should(List.of(chunkQuery, fileNameQuery, productNameQuery, channelQuery)) // 검색 대상 필드를 업데이트
-                                    )
-                            ),
-                    ObjectNode.class  // ObjectNode 클래스로 반환 타입 지정
-            );
+    public List<ChunkHit> searchDocumentsByKeyword(String query) {
+        return searchDocumentsTopKByKeyword(query, DEFAULT_SIZE);
+    }
 
-            // 검색 결과 반환
-            List<Map<String, Object>> searchResults = response.hits().hits().stream()
-                    .map(hit -> objectMapper.convertValue(hit.source(), Map.class))  // ObjectNode를 Map<String, Object>으로 변환
-                    .map(map -> (Map<String, Object>) map)  // 명시적으로 Map<String, Object> 타입으로 캐스팅
-                    .collect(Collectors.toList());
+    /**
+     * 같은 검색어의 반복 검색은 인덱스가 바뀌기 전까지 검색 결과 캐시에서 반환한다.
+     */
+    @Override
+    public List<ChunkHit> searchDocumentsTopKByKeyword(String query, int topK) {
+        return searchResultCache.get("keyword", query, null, topK, () -> searchTopKByKeyword(query, topK));
+    }
 
-            logger.info("Elasticsearch에서 {}개의 검색 결과를 찾았습니다.", searchResults.size());
+    private List<ChunkHit> searchTopKByKeyword(String query, int topK) {
+        try {
+            List<ChunkHit> searchResults = toChunkHits(searchHits(keywordQuery(query), topK));  // 상위 K개 문서만 검색
+            logger.info("Elasticsearch에서 상위 {}개의 검색 결과를 찾았습니다.", searchResults.size());
             return searchResults;
 
         } catch (IOException e) {
@@ -69,43 +132,124 @@ public class ElasticsearchDocumentSearchService implements DocumentSearchReposit
     }
 
     @Override
-    public List<Map<String, Object>> searchDocumentsTopKByKeyword(String query, int topK) {
+    public List<ChunkHit> searchDocumentsTopKByHybrid(String query, int topK) {
+        int windowSize = Math.max(topK, hybridWindowSize);
+
+        // 쿼리 임베딩 생성과 kNN 검색은 별도 스레드에서, 키워드 검색은 현재 스레드에서 동시에 수행
+        CompletableFuture<List<Hit<ChunkHit>>> vectorSearch =
+                CompletableFuture.supplyAsync(() -> searchVectorHits(query, windowSize), hybridSearchExecutor);
+        List<Hit<ChunkHit>> keywordHits;
         try {
-            // 각 필드에 대한 검색 조건을 설정합니다.
-            Query chunkQuery = Query.of(m -> m.match(t -> t.field("chunk").query(query)));
-            Query fileNameQuery = Query.of(m -> m.match(t -> t.field("fileName").query(query)));
-            Query productNameQuery = Query.of(m -> m.match(t -> t.field("productName").query(query)));
-            Query channelQuery = Query.of(m -> m.match(t -> t.field("channel").query(query)));
-
-            // Elasticsearch 검색 쿼리 구성
-            SearchResponse<ObjectNode> response = elasticsearchClient.search(s -> s
-                            .index(indexName)
-                            .size(topK)  // 상위 K개 문서만 검색
-                            .query(q -> q
-                                    .bool(b -> b
-                                            .should(List.of(chunkQuery, fileNameQuery, productNameQuery, channelQuery)) // 검색 대상 필드를 업데이트
-                                    )
-                            ),
-                    ObjectNode.class  // ObjectNode 클래스로 반환 타입 지정
-            );
+            keywordHits = searchHits(keywordQuery(query), windowSize);
+        } catch (IOException e) {
+            logger.error("Elasticsearch 키워드 검색 중 오류 발생: ", e);
+            keywordHits = List.of();
+        }
 
-            // 검색 결과 반환
-            List<Map<String, Object>> searchResults = response.hits().hits().stream()
-                    .map(hit -> objectMapper.convertValue(hit.source(), Map.class))  // ObjectNode를 Map<String, Object>으로 변환
-                    .map(map -> (Map<String, Object>) map)  // 명시적으로 Map<String, Object> 타입으로 캐스팅
-                    .collect(Collectors.toList());
+        List<Hit<ChunkHit>> vectorHits;
+        try {
+            vectorHits = vectorSearch.join();
+        } catch (CompletionException e) {
+            logger.warn("벡터 kNN 검색 실패, 키워드 검색 결과만 사용합니다.", e.getCause());
+            vectorHits = List.of();
+        }
 
-            logger.info("Elasticsearch에서 상위 {}개의 검색 결과를 찾았습니다.", searchResults.size());
-            return searchResults;
+        List<ChunkHit> searchResults = fuseWithReciprocalRank(topK, keywordHits, vectorHits);
+        logger.info("하이브리드 검색: 키워드 {}개, 벡터 {}개를 융합하여 상위 {}개 반환", keywordHits.size(), vectorHits.size(), searchResults.size());
+        return searchResults;
+    }
+
+    /**
+     * chunk/fileName/productName/channel 중 하나 이상에 검색어가 맞는 청크 문서를 찾는 쿼리.
+     */
+    private static Query keywordQuery(String query) {
+        Query chunkQuery = Query.of(m -> m.match(t -> t.field("chunk").query(query)));
+        Query fileNameQuery = Query.of(m -> m.match(t -> t.field("fileName").query(query)));
+        Query productNameQuery = Query.of(m -> m.match(t -> t.field("productName").query(query)));
+        Query channelQuery = Query.of(m -> m.match(t -> t.field("channel").query(query)));
+
+        return Query.of(q -> q
+                .bool(b -> b
+                        .filter(HAS_CHUNK)
+                        .should(List.of(chunkQuery, fileNameQuery, productNameQuery, channelQuery))
+                        .minimumShouldMatch("1")  // filter가 있으면 기본값이 0이 되므로 명시
+                )
+        );
+    }
+
+    /**
+     * 청크 문서를 검색하여 ChunkHit으로 바로 읽는다. _source는 ChunkHit 필드만 가져온다.
+     */
+    private List<Hit<ChunkHit>> searchHits(Query query, int size) throws IOException {
+        return elasticsearchClient.search(searchRequestOf(query, size), ChunkHit.class).hits().hits();
+    }
+
+    private SearchRequest searchRequestOf(Query query, int size) {
+        return SearchRequest.of(s -> s
+                .index(indexName)
+                .query(query)
+                .size(size)
+                .source(src -> src.filter(f -> f.includes(ChunkHit.SOURCE_FIELDS))));
+    }
+
+    private static List<ChunkHit> toChunkHits(List<Hit<ChunkHit>> hits) {
+        return hits.stream()
+                .map(hit -> hit.source().withHitMetadata(hit.id(), hit.score()))
+                .collect(Collectors.toList());
+    }
+
+    private List<Hit<ChunkHit>> searchVectorHits(String query, int size) {
+        Embedding queryEmbedding = embeddingService.getQueryEmbedding(query);
+        try {
+            return elasticsearchClient.search(knnRequestOf(queryEmbedding, size), ChunkHit.class).hits().hits();
 
         } catch (IOException e) {
-            logger.error("Elasticsearch 검색 중 오류 발생: ", e);
-            return Collections.emptyList();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SearchRequest knnRequestOf(Embedding queryEmbedding, int size) {
+        List<Float> queryVector = new ArrayList<>(queryEmbedding.dimensions());
+        for (float value : queryEmbedding.values()) {
+            queryVector.add(value);
+        }
+        return SearchRequest.of(s -> s
+                .index(indexName)
+                .size(size)
+                .knn(k -> k
+                        .field("embedding")
+                        .queryVector(queryVector)
+                        .k(size)
+                        .numCandidates(Math.max(size, knnNumCandidates))
+                        .filter(HAS_CHUNK))
+                .source(src -> src.filter(f -> f.includes(ChunkHit.SOURCE_FIELDS))));
+    }
+
+    /**
+     * 두 순위 목록을 Reciprocal Rank Fusion으로 합칩니다. 문서 ID가 같으면 점수를 더하고, 점수가 같으면 키워드 검색 순서를 따릅니다.
+     */
+    List<ChunkHit> fuseWithReciprocalRank(int topK, List<Hit<ChunkHit>> keywordHits, List<Hit<ChunkHit>> vectorHits) {
+        Map<String, FusedHit> fused = new LinkedHashMap<>();
+        accumulateRanks(fused, keywordHits, keywordWeight);
+        accumulateRanks(fused, vectorHits, vectorWeight);
+
+        return fused.values().stream()
+                .sorted(Comparator.comparingDouble(FusedHit::score).reversed())
+                .limit(topK)
+                .map(fusedHit -> fusedHit.hit().source().withHitMetadata(fusedHit.hit().id(), fusedHit.score()))
+                .collect(Collectors.toList());
+    }
+
+    private void accumulateRanks(Map<String, FusedHit> fused, List<Hit<ChunkHit>> hits, double weight) {
+        for (int rank = 0; rank < hits.size(); rank++) {
+            Hit<ChunkHit> hit = hits.get(rank);
+            double score = weight / (rrfK + rank + 1);
+            fused.merge(hit.id(), new FusedHit(hit, score), (existing, added) -> new FusedHit(existing.hit(), existing.score() + added.score()));
         }
     }
 
     /**
-     * query와 productName을 기반으로 문서를 검색합니다.
+     * query와 productName을 기반으로 문서를 검색합니다. 반복 검색은 검색 결과 캐시에서 반환합니다.
      *
      * @param query       검색어
      * @param productName 상품명
@@ -113,39 +257,180 @@ public class ElasticsearchDocumentSearchService implements DocumentSearchReposit
      * @return 검색된 문서 목록
      */
     @Override
-    public List<Map<String, Object>> searchDocumentsByQueryAndProductName(String query, String productName, int topK) {
+    public List<ChunkHit> searchDocumentsByQueryAndProductName(String query, String productName, int topK) {
+        return searchResultCache.get("product", query, productName, topK, () -> searchChunks(ChunkSearchRequest.builder()
+                .query(query)
+                .productName(productName)
+                .size(topK)
+                .build()));
+    }
+
+    /**
+     * 검색어는 chunk/fileName/channel에 대해 점수를 매기고, 나머지 조건은 filter 절로 적용합니다.
+     * filter 절은 점수를 계산하지 않고 결과 비트셋이 캐시되므로 같은 상품 범위의 반복 검색이 빨라집니다.
+     *
+     * @param request 검색 조건
+     * @return 검색된 문서 목록
+     */
+    @Override
+    public List<ChunkHit> searchChunks(ChunkSearchRequest request) {
         try {
-            // 검색 조건 설정
-            Query chunkQuery = Query.of(m -> m.match(t -> t.field("chunk").query(query)));
-            Query fileNameQuery = Query.of(m -> m.match(t -> t.field("fileName").query(query)));
-            Query productNameQuery = Query.of(m -> m.match(t -> t.field("productName").query(productName))); // 상품명 필터 추가
-            Query channelQuery = Query.of(m -> m.match(t -> t.field("channel").query(query)));
-
-            // Elasticsearch 검색 쿼리 구성
-            SearchResponse<ObjectNode> response = elasticsearchClient.search(s -> s
+            List<ChunkHit> searchResults = toChunkHits(searchHits(chunkQueryOf(request), request.size()));
+
+            logger.info("Elasticsearch에서 {}개의 검색 결과를 찾았습니다. (필터 {}개)", searchResults.size(), filtersOf(request).size());
+            return searchResults;
+
+        } catch (IOException e) {
+            logger.error("Elasticsearch 검색 중 오류 발생: ", e);
+            return List.of(); // 오류 발생 시 빈 리스트 반환
+        }
+    }
+
+    private static Query chunkQueryOf(ChunkSearchRequest request) {
+        // 점수 계산 조건 (검색어)
+        String query = request.query();
+        Query chunkQuery = Query.of(m -> m.match(t -> t.field("chunk").query(query)));
+        Query fileNameQuery = Query.of(m -> m.match(t -> t.field("fileName").query(query)));
+        Query channelQuery = Query.of(m -> m.match(t -> t.field("channel").query(query)));
+
+        // 점수에 영향을 주지 않는 필터 조건
+        List<Query> filters = filtersOf(request);
+
+        return Query.of(q -> q
+                .bool(b -> b
+                        .filter(HAS_CHUNK)
+                        .filter(filters)
+                        .should(List.of(chunkQuery, fileNameQuery, channelQuery))
+                        // 필터가 있으면 검색어가 맞지 않는 문서도 점수 0으로 포함 (기존 must + should와 동일)
+                        .minimumShouldMatch(filters.isEmpty() ? "1" : "0")
+                )
+        );
+    }
+
+    static List<Query> filtersOf(ChunkSearchRequest request) {
+        List<Query> filters = new ArrayList<>();
+        if (request.productName() != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field("productName.keyword").value(request.productName()))));
+        }
+        if (request.channel() != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field("channel.keyword").value(request.channel()))));
+        }
+        if (request.productType() != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field("productType").value(request.productType()))));
+        }
+        if (request.onSaleAt() != null) {
+            JsonData date = JsonData.of(request.onSaleAt().toString());
+            // 판매 시작일이나 종료일이 없는 상품은 그쪽 경계가 열려 있는 것으로 본다
+            filters.add(rangeOrMissing("saleStartDate",
+                    Query.of(q -> q.range(r -> r.field("saleStartDate").lte(date).format("strict_date")))));
+            filters.add(rangeOrMissing("saleEndDate",
+                    Query.of(q -> q.range(r -> r.field("saleEndDate").gte(date).format("strict_date")))));
+        }
+        return filters;
+    }
+
+    /**
+     * 범위 조건을 만족하거나 필드가 아예 없는 문서와 일치하는 필터.
+     */
+    private static Query rangeOrMissing(String field, Query range) {
+        return Query.of(q -> q.bool(b -> b
+                .should(range)
+                .should(Query.of(s -> s.bool(n -> n.mustNot(Query.of(e -> e.exists(x -> x.field(field)))))))
+        ));
+    }
+
+    /**
+     * searchDocumentsTopKByKeyword의 논블로킹 버전. 비동기 클라이언트로 검색하므로 응답을 기다리는 동안 스레드를 점유하지 않는다.
+     */
+    public Mono<List<ChunkHit>> searchDocumentsTopKByKeywordAsync(String query, int topK) {
+        return searchResultCache.getAsync("keyword", query, null, topK, () -> searchHitsAsync(searchRequestOf(keywordQuery(query), topK))
+                .map(ElasticsearchDocumentSearchService::toChunkHits)
+                .doOnNext(searchResults -> logger.info("Elasticsearch에서 상위 {}개의 검색 결과를 찾았습니다.", searchResults.size()))
+                .onErrorResume(e -> {
+                    logger.error("Elasticsearch 검색 중 오류 발생: ", e);
+                    return Mono.just(List.of());
+                }));
+    }
+
+    /**
+     * searchDocumentsByQueryAndProductName의 논블로킹 버전.
+     */
+    public Mono<List<ChunkHit>> searchDocumentsByQueryAndProductNameAsync(String query, String productName, int topK) {
+        ChunkSearchRequest request = ChunkSearchRequest.builder()
+                .query(query)
+                .productName(productName)
+                .size(topK)
+                .build();
+        return searchResultCache.getAsync("product", query, productName, topK, () -> searchHitsAsync(searchRequestOf(chunkQueryOf(request), request.size()))
+                .map(ElasticsearchDocumentSearchService::toChunkHits)
+                .doOnNext(searchResults -> logger.info("Elasticsearch에서 {}개의 검색 결과를 찾았습니다. (상품 {})", searchResults.size(), productName))
+                .onErrorResume(e -> {
+                    logger.error("Elasticsearch 검색 중 오류 발생: ", e);
+                    return Mono.just(List.of());
+                }));
+    }
+
+    /**
+     * searchDocumentsTopKByHybrid의 논블로킹 버전. 이미 구한 쿼리 임베딩을 받아 키워드 검색과 kNN 검색을 동시에 보낸다.
+     */
+    public Mono<List<ChunkHit>> searchDocumentsTopKByHybridAsync(String query, Embedding queryEmbedding, int topK) {
+        int windowSize = Math.max(topK, hybridWindowSize);
+        Mono<List<Hit<ChunkHit>>> keywordSearch = searchHitsAsync(searchRequestOf(keywordQuery(query), windowSize))
+                .onErrorResume(e -> {
+                    logger.error("Elasticsearch 키워드 검색 중 오류 발생: ", e);
+                    return Mono.just(List.of());
+                });
+        Mono<List<Hit<ChunkHit>>> vectorSearch = searchHitsAsync(knnRequestOf(queryEmbedding, windowSize))
+                .onErrorResume(e -> {
+                    logger.warn("벡터 kNN 검색 실패, 키워드 검색 결과만 사용합니다.", e);
+                    return Mono.just(List.of());
+                });
+
+        return Mono.zip(keywordSearch, vectorSearch).map(hits -> {
+            List<ChunkHit> searchResults = fuseWithReciprocalRank(topK, hits.getT1(), hits.getT2());
+            logger.info("하이브리드 검색: 키워드 {}개, 벡터 {}개를 융합하여 상위 {}개 반환", hits.getT1().size(), hits.getT2().size(), searchResults.size());
+            return searchResults;
+        });
+    }
+
+    private Mono<List<Hit<ChunkHit>>> searchHitsAsync(SearchRequest request) {
+        return Mono.fromFuture(() -> elasticsearchAsyncClient.search(request, ChunkHit.class))
+                .map(response -> response.hits().hits());
+    }
+
+    /**
+     * ID 목록으로 문서를 한 번에 조회합니다 (mget). ChunkHit 필드만 가져옵니다.
+     *
+     * @param ids 문서 ID 목록
+     * @return ID 순서대로 조회된 문서 목록 (없는 문서는 제외, 각 문서에 id 필드 포함)
+     */
+    @Override
+    public List<ChunkHit> findDocumentsByIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        try {
+            MgetResponse<ChunkHit> response = elasticsearchClient.mget(m -> m
                             .index(indexName)
-                            .query(q -> q
-                                    .bool(b -> b
-                                            .must(productNameQuery)  // productName 필터 적용
-                                            .should(List.of(chunkQuery, fileNameQuery, channelQuery)) // 다른 필드에 대한 검색
-                                    )
-                            )
-                            .size(topK),  // 상위 K개의 결과 반환
-                    ObjectNode.class  // ObjectNode 클래스로 반환 타입 지정
+                            .ids(ids)
+                            .sourceIncludes(ChunkHit.SOURCE_FIELDS),
+                    ChunkHit.class
             );
 
-            // 검색 결과 반환
-            List<Map<String, Object>> searchResults = response.hits().hits().stream()
-                    .map(hit -> objectMapper.convertValue(hit.source(), Map.class))  // ObjectNode를 Map<String, Object>으로 변환
-                    .map(map -> (Map<String, Object>) map)  // 명시적으로 Map<String, Object> 타입으로 캐스팅
+            List<ChunkHit> documents = response.docs().stream()
+                    .filter(doc -> doc.isResult() && doc.result().found())
+                    .map(doc -> doc.result().source().withHitMetadata(doc.result().id(), null))  // 청크 문서는 _source에 id가 없으므로 추가
                     .collect(Collectors.toList());
 
-            logger.info("Elasticsearch에서 {}개의 검색 결과를 찾았습니다.", searchResults.size());
-            return searchResults;
+            logger.info("Elasticsearch에서 ID로 {}개 중 {}개의 문서를 조회했습니다.", ids.size(), documents.size());
+            return documents;
 
         } catch (IOException e) {
-            logger.error("Elasticsearch 검색 중 오류 발생: ", e);
-            return List.of(); // 오류 발생 시 빈 리스트 반환
+            logger.error("Elasticsearch 문서 조회 중 오류 발생: ", e);
+            return List.of();
         }
     }
+
+    private record FusedHit(Hit<ChunkHit> hit, double score) {
+    }
 }
@@ -5,8 +5,6 @@ import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.json.JsonData;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -22,7 +20,6 @@ import java.util.stream.Collectors;
 public class KeyWordSearchService {
 
     private final ElasticsearchClient elasticsearchClient;
-    private final ObjectMapper objectMapper = new ObjectMapper();  // ObjectMapper 추가
 
     @Value("${spring.elasticsearch.index-name}")
     private String indexName;
@@ -30,7 +27,7 @@ public class KeyWordSearchService {
     public List<Map<String, Object>> searchDocuments(String query) {
         try {
             // Elasticsearch 검색 쿼리 구성
-            SearchResponse<ObjectNode> response = elasticsearchClient.search(s -> s
+            SearchResponse<Map> response = elasticsearchClient.search(s -> s
                             .index(indexName)  // 검색할 인덱스 이름
                             .query(q -> q
                                     .bool(b -> b
@@ -42,13 +39,12 @@ public class KeyWordSearchService {
                                             ))
                                     )
                             ),
-                    ObjectNode.class  // ObjectNode 클래스로 반환 타입 지정
+                    Map.class  // 요소 단위 문서는 필드가 문서마다 달라 _source를 바로 Map으로 읽음
             );
 
             // 검색 결과 반환
             return response.hits().hits().stream()
-                    .map(hit -> objectMapper.convertValue(hit.source(), Map.class))  // ObjectNode를 Map<String, Object>으로 변환
-                    .map(map -> (Map<String, Object>) map)  // 명시적으로 Map<String, Object> 타입으로 캐스팅
+                    .map(hit -> (Map<String, Object>) hit.source())
                     .collect(Collectors.toList());
 
         } catch (IOException e) {
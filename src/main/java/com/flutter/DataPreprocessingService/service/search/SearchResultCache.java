@@ -0,0 +1,213 @@
+package com.flutter.DataPreprocessingService.service.search;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.indexing.IndexGeneration;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 청크 검색 결과를 힙에 보관하는 LRU 캐시.
+ *
+ * 키는 검색 종류, 정규화한 검색어(NFC, 소문자, 앞뒤 공백 제거, 연속 공백 축약), 상품명, 결과 수, 인덱스 세대이다.
+ * 인덱스 세대는 벌크 세션이 끝날 때마다 증가하므로, 문서가 새로 색인되면 그 전의 결과는 즉시 적중하지 않게 되고
+ * 세대가 바뀐 뒤 처음 저장할 때 한꺼번에 비운다.
+ * 항목 수와 추정 메모리 크기 중 하나라도 상한을 넘으면 가장 오래 쓰지 않은 항목부터 제거한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchResultCache.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // 항목 하나의 고정 비용 (키, 리스트, 맵 엔트리 객체)과 ChunkHit 하나의 고정 비용 추정치
+    private static final long ENTRY_OVERHEAD_BYTES = 160;
+    private static final long HIT_OVERHEAD_BYTES = 96;
+
+    private final IndexGeneration indexGeneration;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${search.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.result-cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${search.result-cache.max-size-mb:64}")
+    private long maxSizeMb;
+
+    private LinkedHashMap<Key, CachedResult> entries;
+    private long estimatedBytes;
+    private long cachedGeneration;
+
+    @PostConstruct
+    void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        cachedGeneration = indexGeneration.current();
+    }
+
+    /**
+     * 캐시에 결과가 있으면 반환하고, 없으면 검색을 수행해 저장한다. 빈 결과(검색 오류 포함)는 저장하지 않는다.
+     *
+     * @param scope 검색 종류 (같은 검색어라도 쿼리 구성이 다르면 구분)
+     * @param query 검색어
+     * @param productName 상품명 (없으면 null)
+     * @param topK 결과 수
+     * @param search 캐시에 없을 때 수행할 검색
+     * @return 검색 결과 (수정 불가)
+     */
+    public List<ChunkHit> get(String scope, String query, String productName, int topK, Supplier<List<ChunkHit>> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        // 검색 전에 세대를 읽어 두므로, 검색 도중 색인이 끝나면 이 결과는 이전 세대로 저장되어 적중하지 않는다
+        Key key = keyOf(scope, query, productName, topK);
+        List<ChunkHit> cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, search.get());
+    }
+
+    /**
+     * get의 논블로킹 버전. 캐시에 없을 때만 search가 만든 Mono를 구독한다.
+     */
+    public Mono<List<ChunkHit>> getAsync(String scope, String query, String productName, int topK, Supplier<Mono<List<ChunkHit>>> search) {
+        if (!enabled) {
+            return Mono.defer(search);
+        }
+        return Mono.defer(() -> {
+            Key key = keyOf(scope, query, productName, topK);
+            List<ChunkHit> cached = lookup(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return search.get().map(results -> store(key, results));
+        });
+    }
+
+    private Key keyOf(String scope, String query, String productName, int topK) {
+        return new Key(scope, normalize(query), productName, topK, indexGeneration.current());
+    }
+
+    private List<ChunkHit> lookup(Key key) {
+        synchronized (this) {
+            CachedResult cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached.hits();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private List<ChunkHit> store(Key key, List<ChunkHit> searchResults) {
+        List<ChunkHit> results = List.copyOf(searchResults);
+        if (!results.isEmpty()) {
+            put(key, new CachedResult(results, estimateBytes(key, results)));
+        }
+        return results;
+    }
+
+    private synchronized void put(Key key, CachedResult result) {
+        if (key.generation() != cachedGeneration) {
+            if (key.generation() < cachedGeneration) {
+                return;
+            }
+            if (!entries.isEmpty()) {
+                logger.info("인덱스 세대 변경으로 검색 결과 캐시 비움: {} -> {} ({}개 항목)", cachedGeneration, key.generation(), entries.size());
+                invalidations.incrementAndGet();
+            }
+            entries.clear();
+            estimatedBytes = 0;
+            cachedGeneration = key.generation();
+        }
+
+        CachedResult previous = entries.put(key, result);
+        if (previous != null) {
+            estimatedBytes -= previous.bytes();
+        }
+        estimatedBytes += result.bytes();
+
+        long maxBytes = maxSizeMb * 1024 * 1024;
+        Iterator<CachedResult> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && eldest.hasNext()) {
+            estimatedBytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 캐시 키에 쓰는 검색어 정규화. 요청 병합(SingleFlight)도 같은 규칙을 쓴다.
+     */
+    public static String normalize(String query) {
+        String normalized = Normalizer.normalize(query == null ? "" : query, Normalizer.Form.NFC).strip();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 문자열 길이를 기준으로 한 대략적인 힙 사용량 (문자당 2바이트로 계산).
+     */
+    private static long estimateBytes(Key key, List<ChunkHit> results) {
+        long bytes = ENTRY_OVERHEAD_BYTES + charBytes(key.query()) + charBytes(key.productName());
+        for (ChunkHit hit : results) {
+            bytes += HIT_OVERHEAD_BYTES
+                    + charBytes(hit.id()) + charBytes(hit.chunk()) + charBytes(hit.productName())
+                    + charBytes(hit.productType()) + charBytes(hit.channel()) + charBytes(hit.fileName())
+                    + charBytes(hit.saleStartDate()) + charBytes(hit.saleEndDate());
+        }
+        return bytes;
+    }
+
+    private static long charBytes(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        int entryCount;
+        long bytes;
+        synchronized (this) {
+            entryCount = entries.size();
+            bytes = estimatedBytes;
+        }
+        return Map.of(
+                "entries", entryCount,
+                "estimatedBytes", bytes,
+                "generation", indexGeneration.current(),
+                "hits", hitCount,
+                "misses", missCount,
+                "hitRatio", total == 0 ? 0.0 : (double) hitCount / total,
+                "evictions", evictions.get(),
+                "invalidations", invalidations.get()
+        );
+    }
+
+    private record Key(String scope, String query, String productName, int topK, long generation) {
+    }
+
+    private record CachedResult(List<ChunkHit> hits, long bytes) {
+    }
+}
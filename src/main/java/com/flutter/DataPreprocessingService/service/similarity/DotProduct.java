@@ -0,0 +1,24 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * float 벡터와 float 또는 int8 행의 내적을 계산하는 커널.
+ */
+interface DotProduct {
+
+    float dot(float[] a, float[] b);
+
+    /**
+     * 버퍼의 byteOffset 위치에 a.length개의 float(little-endian)로 저장된 행과의 내적.
+     * 메모리 매핑된 파일의 행을 배열로 복사하지 않고 바로 읽는다. 버퍼의 byte order는 LITTLE_ENDIAN이어야 한다.
+     */
+    float dot(float[] a, ByteBuffer rows, int byteOffset);
+
+    /**
+     * codes의 offset 위치부터 a.length개의 int8 코드와의 내적 (양자화된 행용, 보정 전 값).
+     */
+    float dot(float[] a, byte[] codes, int offset);
+
+    String name();
+}
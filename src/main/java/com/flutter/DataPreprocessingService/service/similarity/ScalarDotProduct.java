@@ -0,0 +1,77 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Vector API를 사용할 수 없을 때 쓰는 스칼라 내적 구현.
+ *
+ * 누적 변수를 네 개로 나누어 루프 간 의존성을 줄인다.
+ */
+final class ScalarDotProduct implements DotProduct {
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        float sum0 = 0f;
+        float sum1 = 0f;
+        float sum2 = 0f;
+        float sum3 = 0f;
+        int i = 0;
+        int bound = a.length & ~3;
+        for (; i < bound; i += 4) {
+            sum0 += a[i] * b[i];
+            sum1 += a[i + 1] * b[i + 1];
+            sum2 += a[i + 2] * b[i + 2];
+            sum3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            sum0 += a[i] * b[i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public float dot(float[] a, ByteBuffer rows, int byteOffset) {
+        float sum0 = 0f;
+        float sum1 = 0f;
+        float sum2 = 0f;
+        float sum3 = 0f;
+        int i = 0;
+        int bound = a.length & ~3;
+        for (; i < bound; i += 4) {
+            int offset = byteOffset + i * Float.BYTES;
+            sum0 += a[i] * rows.getFloat(offset);
+            sum1 += a[i + 1] * rows.getFloat(offset + Float.BYTES);
+            sum2 += a[i + 2] * rows.getFloat(offset + 2 * Float.BYTES);
+            sum3 += a[i + 3] * rows.getFloat(offset + 3 * Float.BYTES);
+        }
+        for (; i < a.length; i++) {
+            sum0 += a[i] * rows.getFloat(byteOffset + i * Float.BYTES);
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public float dot(float[] a, byte[] codes, int offset) {
+        float sum0 = 0f;
+        float sum1 = 0f;
+        float sum2 = 0f;
+        float sum3 = 0f;
+        int i = 0;
+        int bound = a.length & ~3;
+        for (; i < bound; i += 4) {
+            sum0 += a[i] * codes[offset + i];
+            sum1 += a[i + 1] * codes[offset + i + 1];
+            sum2 += a[i + 2] * codes[offset + i + 2];
+            sum3 += a[i + 3] * codes[offset + i + 3];
+        }
+        for (; i < a.length; i++) {
+            sum0 += a[i] * codes[offset + i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
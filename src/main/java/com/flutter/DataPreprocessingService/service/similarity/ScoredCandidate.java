@@ -0,0 +1,7 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+/**
+ * topK 결과 항목. index는 후보 목록에서의 위치이다.
+ */
+public record ScoredCandidate(int index, float score) {
+}
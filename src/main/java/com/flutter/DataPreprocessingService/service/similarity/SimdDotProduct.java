@@ -0,0 +1,86 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * JDK Vector API(jdk.incubator.vector) 기반 내적 구현.
+ *
+ * 이 클래스는 jdk.incubator.vector 모듈이 로드된 경우에만 VectorMath가 리플렉션으로 생성한다.
+ * (JVM 옵션 --add-modules jdk.incubator.vector 필요)
+ */
+final class SimdDotProduct implements DotProduct {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    // int8 코드를 읽어 float로 변환하기 위한 species. byte 벡터는 64비트보다 작을 수 없으므로
+    // float 레인이 8개보다 적으면(128비트 이하 float species) 64비트 byte 벡터를 여러 part로 나누어 변환한다.
+    private static final VectorSpecies<Byte> BYTE_SPECIES = SPECIES.length() >= ByteVector.SPECIES_64.length()
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(SPECIES.length() * Byte.SIZE))
+            : ByteVector.SPECIES_64;
+    private static final int BYTE_PARTS = BYTE_SPECIES.length() / SPECIES.length();
+
+    @Override
+    public float dot(float[] a, float[] b) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(a.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, ByteBuffer rows, int byteOffset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(a.length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromByteBuffer(SPECIES, rows, byteOffset + i * Float.BYTES, ByteOrder.LITTLE_ENDIAN);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * rows.getFloat(byteOffset + i * Float.BYTES);
+        }
+        return sum;
+    }
+
+    @Override
+    public float dot(float[] a, byte[] codes, int offset) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = BYTE_SPECIES.loopBound(a.length);
+        for (; i < bound; i += BYTE_SPECIES.length()) {
+            ByteVector vc = ByteVector.fromArray(BYTE_SPECIES, codes, offset + i);
+            for (int part = 0; part < BYTE_PARTS; part++) {
+                FloatVector va = FloatVector.fromArray(SPECIES, a, i + part * SPECIES.length());
+                FloatVector vb = (FloatVector) vc.castShape(SPECIES, part);
+                acc = va.fma(vb, acc);
+            }
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            sum += a[i] * codes[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "simd(" + SPECIES.vectorBitSize() + "bit)";
+    }
+}
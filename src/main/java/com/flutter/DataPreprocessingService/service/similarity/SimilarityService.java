@@ -1,12 +1,11 @@
 package com.flutter.DataPreprocessingService.service.similarity;
 
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 코사인 유사도를 기반으로 문서를 재정렬하는 서비스 클래스.
@@ -17,67 +16,30 @@ public class SimilarityService {
     private static final Logger logger = LoggerFactory.getLogger(SimilarityService.class);
 
     /**
-     * 문서와 쿼리의 임베딩을 사용해 코사인 유사도를 계산하고 문서를 정렬합니다.
+     * 쿼리와 코사인 유사도가 가장 높은 후보 k개를 선택합니다.
      *
-     * @param queryEmbedding 사용자의 쿼리 임베딩
-     * @param documents 문서 목록
-     * @return 정렬된 문서 목록
-     */
-    public List<Map<String, Object>> rankDocumentsBySimilarity(List<Double> queryEmbedding, List<Map<String, Object>> documents) {
-        List<Map<String, Object>> rankedDocuments = new ArrayList<>();
-
-        for (Map<String, Object> document : documents) {
-            List<Double> documentEmbedding = (List<Double>) document.get("embedding");
-
-            // 유사도 계산 로그
-            logger.info("Calculating cosine similarity for document ID: {}", document.get("id"));
-            double similarity = calculateCosineSimilarity(queryEmbedding, documentEmbedding);
-
-            document.put("similarity", similarity);
-            rankedDocuments.add(document);
-
-            // 유사도 계산 결과 로그
-            logger.info("Document ID: {} has a similarity score of: {}", document.get("id"), similarity);
-        }
-
-        // 유사도 순으로 정렬
-        rankedDocuments.sort((doc1, doc2) -> Double.compare((Double) doc2.get("similarity"), (Double) doc1.get("similarity")));
-
-        // 리랭킹된 결과 로그
-        logger.info("Re-ranked documents based on cosine similarity:");
-        for (Map<String, Object> rankedDocument : rankedDocuments) {
-            logger.info("Document ID: {}, Similarity Score: {}", rankedDocument.get("id"), rankedDocument.get("similarity"));
-        }
-
-        return rankedDocuments;
-    }
-
-    /**
-     * 코사인 유사도를 계산합니다.
+     * 전체 정렬 대신 크기 k의 최소 힙(TopKCollector)을 사용하므로 O(n log k)이며 점수를 박싱하지 않습니다.
+     * 후보 객체는 변경하지 않고, 결과의 index로 원래 목록의 위치를 알려 줍니다.
      *
-     * @param vectorA 벡터 A
-     * @param vectorB 벡터 B
-     * @return 코사인 유사도 값
+     * @param queryEmbedding 사용자의 쿼리 임베딩
+     * @param candidates 후보 문서 임베딩 목록
+     * @param k 선택할 개수
+     * @return 유사도 내림차순 상위 k개 (점수가 같으면 앞선 후보 우선)
      */
-    private double calculateCosineSimilarity(List<Double> vectorA, List<Double> vectorB) {
-        if (vectorA.size() != vectorB.size()) {
-            throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다.");
+    public List<ScoredCandidate> topK(Embedding queryEmbedding, List<Embedding> candidates, int k) {
+        float[] query = queryEmbedding.normalized();
+        TopKCollector collector = new TopKCollector(Math.min(k, candidates.size()));
+        for (int i = 0; i < candidates.size(); i++) {
+            collector.offer(i, VectorMath.dot(query, candidates.get(i).normalized()));
         }
+        List<ScoredCandidate> ranked = collector.drain();
 
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (int i = 0; i < vectorA.size(); i++) {
-            dotProduct += vectorA.get(i) * vectorB.get(i);
-            normA += Math.pow(vectorA.get(i), 2);
-            normB += Math.pow(vectorB.get(i), 2);
-        }
-
-        if (normA == 0.0 || normB == 0.0) {
-            return 0.0;
+        logger.info("Selected top {} of {} candidates based on cosine similarity ({} kernel)", ranked.size(), candidates.size(), VectorMath.kernelName());
+        if (logger.isDebugEnabled()) {
+            for (ScoredCandidate candidate : ranked) {
+                logger.debug("Candidate: {}, Similarity Score: {}", candidate.index(), candidate.score());
+            }
         }
-
-        return dotProduct / (Math.sqrt(normA) * Math.sqrt(normB));
+        return ranked;
     }
 }
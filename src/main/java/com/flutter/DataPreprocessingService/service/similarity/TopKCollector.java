@@ -0,0 +1,99 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import java.util.List;
+
+/**
+ * 점수가 가장 높은 k개를 고르는 최소 힙. 원시 타입 배열만 사용하므로 offer 시 객체를 만들지 않는다.
+ *
+ * 점수가 같으면 index가 작은 항목을 우선한다. 스레드 안전하지 않다.
+ */
+public final class TopKCollector {
+
+    private final int[] indexes;
+    private final float[] scores;
+    private int size;
+
+    public TopKCollector(int k) {
+        this.indexes = new int[Math.max(k, 0)];
+        this.scores = new float[Math.max(k, 0)];
+    }
+
+    public void offer(int index, float score) {
+        if (indexes.length == 0) {
+            return;
+        }
+        if (size < indexes.length) {
+            indexes[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0] || (score == scores[0] && index < indexes[0])) {
+            indexes[0] = index;
+            scores[0] = score;
+            siftDown(size);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 점수 내림차순 결과를 반환하고 수집기를 비운다.
+     */
+    public List<ScoredCandidate> drain() {
+        ScoredCandidate[] ranked = new ScoredCandidate[size];
+        // 힙에서 가장 낮은 점수부터 꺼내 뒤에서부터 채운다.
+        for (int last = size - 1; last >= 0; last--) {
+            ranked[last] = new ScoredCandidate(indexes[0], scores[0]);
+            indexes[0] = indexes[last];
+            scores[0] = scores[last];
+            siftDown(last);
+        }
+        size = 0;
+        return List.of(ranked);
+    }
+
+    /**
+     * 힙 순서에서 i가 j보다 앞서는지 (점수가 낮거나, 같으면 뒤쪽 후보가 먼저 밀려난다).
+     */
+    private boolean lower(int i, int j) {
+        return scores[i] < scores[j] || (scores[i] == scores[j] && indexes[i] > indexes[j]);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!lower(position, parent)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int heapSize) {
+        int position = 0;
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < heapSize && lower(right, left) ? right : left;
+            if (!lower(smallest, position)) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int index = indexes[i];
+        indexes[i] = indexes[j];
+        indexes[j] = index;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
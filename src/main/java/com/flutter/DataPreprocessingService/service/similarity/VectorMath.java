@@ -0,0 +1,74 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 임베딩 유사도 계산용 벡터 연산.
+ *
+ * jdk.incubator.vector 모듈이 있으면 SIMD 커널을, 없으면 스칼라 커널을 사용한다.
+ * 입력이 단위 벡터로 정규화되어 있으면 코사인 유사도는 내적 한 번으로 계산된다.
+ */
+public final class VectorMath {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorMath.class);
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final DotProduct KERNEL = loadKernel();
+
+    private VectorMath() {
+    }
+
+    /**
+     * 두 벡터의 내적을 계산한다.
+     */
+    public static float dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다.");
+        }
+        return KERNEL.dot(a, b);
+    }
+
+    /**
+     * 버퍼에 little-endian float로 저장된 행과의 내적을 계산한다. 행을 배열로 복사하지 않는다.
+     *
+     * @param rows byte order가 LITTLE_ENDIAN인 버퍼 (메모리 매핑된 세그먼트 등)
+     * @param byteOffset 행의 시작 위치 (바이트)
+     */
+    public static float dot(float[] query, ByteBuffer rows, int byteOffset) {
+        return KERNEL.dot(query, rows, byteOffset);
+    }
+
+    /**
+     * codes의 offset 위치부터 query.length개의 int8 코드와의 내적을 계산한다 (양자화 보정 전 값).
+     */
+    public static float dot(float[] query, byte[] codes, int offset) {
+        return KERNEL.dot(query, codes, offset);
+    }
+
+    /**
+     * 현재 사용 중인 커널 이름 (scalar 또는 simd).
+     */
+    public static String kernelName() {
+        return KERNEL.name();
+    }
+
+    private static DotProduct loadKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                DotProduct kernel = (DotProduct) Class.forName(VectorMath.class.getPackageName() + ".SimdDotProduct")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                logger.info("벡터 유사도 커널: {}", kernel.name());
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("SIMD 커널 로드 실패, 스칼라 커널을 사용합니다.", e);
+            }
+        } else {
+            logger.info("{} 모듈이 없어 스칼라 벡터 유사도 커널을 사용합니다.", VECTOR_MODULE);
+        }
+        return new ScalarDotProduct();
+    }
+}
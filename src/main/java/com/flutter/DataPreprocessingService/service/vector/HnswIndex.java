@@ -0,0 +1,508 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.similarity.VectorMath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 청크 임베딩에 대한 HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 인덱스.
+ *
+ * 벡터는 단위 벡터로 저장하며 유사도는 내적(= 코사인 유사도)으로 계산한다.
+ * 이웃 목록은 불변 배열을 원자적으로 교체하는 방식이므로 검색은 잠금 없이 삽입과 동시에 수행할 수 있고,
+ * 삽입끼리는 노드 단위로만 동기화한다. 저장(save) 중에는 삽입이 잠시 멈춘다.
+ *
+ * 같은 ID로 다른 벡터가 다시 들어오면 기존 노드는 삭제 표시만 하고 새 노드를 추가한다.
+ * remove로 지운 노드도 삭제 표시만 하며, 그래프 연결은 유지해 탐색 경로로 쓰되 검색 결과에서는 제외한다.
+ */
+public class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357; // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+    private static final int[] NO_NEIGHBORS = new int[0];
+    private static final Comparator<Candidate> BY_SCORE_DESC = (a, b) -> Float.compare(b.score(), a.score());
+    private static final Comparator<Candidate> BY_SCORE_ASC = (a, b) -> Float.compare(a.score(), b.score());
+
+    private final int m;
+    private final int maxConnectionsLevel0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+
+    // 삽입은 공유 잠금, 저장은 배타 잠금을 잡는다. 검색은 잠금을 잡지 않는다.
+    private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+    private final Object entryLock = new Object();
+    private final Object growLock = new Object();
+    private final Map<String, Integer> nodeIndexes = new ConcurrentHashMap<>();
+    private final AtomicInteger deletedCount = new AtomicInteger();
+
+    private volatile Node[] nodes = new Node[1024];
+    private volatile int count;
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+    private volatile int dimensions = -1;
+
+    public HnswIndex(int m, int efConstruction) {
+        this.m = m;
+        this.maxConnectionsLevel0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    public int size() {
+        return count - deletedCount.get();
+    }
+
+    public int deletedCount() {
+        return deletedCount.get();
+    }
+
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * 벡터를 추가한다. 여러 스레드에서 동시에 호출할 수 있다.
+     *
+     * @return 인덱스가 바뀌었으면 true (같은 ID, 같은 벡터면 false)
+     */
+    public boolean add(String id, Embedding embedding) {
+        float[] vector = embedding.normalized();
+        structureLock.readLock().lock();
+        try {
+            checkDimensions(vector.length);
+            int level = randomLevel();
+            Node node = new Node(id, vector, level);
+            // 같은 ID의 동시 삽입이 둘 다 살아 있는 노드를 남기지 않도록, 기존 노드 확인과 삭제 표시, 새 노드 등록을 한 번에 수행한다
+            int[] added = {-1};
+            nodeIndexes.compute(id, (key, previous) -> {
+                if (previous != null) {
+                    Node existing = node(previous);
+                    if (Arrays.equals(existing.vector, vector)) {
+                        return previous;
+                    }
+                    if (!existing.deleted) {
+                        existing.deleted = true;
+                        deletedCount.incrementAndGet();
+                    }
+                }
+                added[0] = appendNode(node);
+                return added[0];
+            });
+            if (added[0] < 0) {
+                return false;
+            }
+            int index = added[0];
+
+            int currentEntry;
+            int currentMaxLevel;
+            synchronized (entryLock) {
+                if (entryPoint < 0) {
+                    entryPoint = index;
+                    maxLevel = level;
+                    return true;
+                }
+                currentEntry = entryPoint;
+                currentMaxLevel = maxLevel;
+            }
+
+            Candidate entry = new Candidate(currentEntry, score(vector, currentEntry));
+            for (int l = currentMaxLevel; l > level; l--) {
+                entry = greedySearch(vector, entry, l);
+            }
+
+            Collection<Candidate> entries = List.of(entry);
+            for (int l = Math.min(level, currentMaxLevel); l >= 0; l--) {
+                List<Candidate> found = sortedDescending(searchLayer(vector, entries, efConstruction, l));
+                found.removeIf(candidate -> candidate.node() == index);
+                int[] selected = selectNeighbors(found, m);
+                int maxConnections = maxConnections(l);
+                connect(index, selected, l, maxConnections);
+                for (int neighbor : selected) {
+                    connect(neighbor, new int[]{index}, l, maxConnections);
+                }
+                entries = found.isEmpty() ? entries : found;
+            }
+
+            if (level > currentMaxLevel) {
+                synchronized (entryLock) {
+                    if (level > maxLevel) {
+                        maxLevel = level;
+                        entryPoint = index;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * ID의 벡터를 삭제 표시한다. 여러 스레드에서 동시에 호출할 수 있다.
+     *
+     * @return 살아 있는 노드가 있어 삭제했으면 true
+     */
+    public boolean remove(String id) {
+        structureLock.readLock().lock();
+        try {
+            boolean[] removed = {false};
+            nodeIndexes.computeIfPresent(id, (key, index) -> {
+                Node existing = node(index);
+                if (!existing.deleted) {
+                    existing.deleted = true;
+                    deletedCount.incrementAndGet();
+                    removed[0] = true;
+                }
+                return null;
+            });
+            return removed[0];
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 쿼리와 가장 유사한 벡터 k개를 찾는다.
+     *
+     * @param ef 탐색 후보 크기 (클수록 정확하지만 느리다, k보다 작으면 k를 사용)
+     */
+    public List<VectorHit> search(Embedding query, int k, int ef) {
+        int currentEntry;
+        int currentMaxLevel;
+        synchronized (entryLock) {
+            currentEntry = entryPoint;
+            currentMaxLevel = maxLevel;
+        }
+        if (currentEntry < 0 || k <= 0) {
+            return List.of();
+        }
+        float[] vector = query.normalized();
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다.");
+        }
+
+        Candidate entry = new Candidate(currentEntry, score(vector, currentEntry));
+        for (int l = currentMaxLevel; l > 0; l--) {
+            entry = greedySearch(vector, entry, l);
+        }
+        List<Candidate> found = sortedDescending(searchLayer(vector, List.of(entry), Math.max(ef, k), 0));
+
+        List<VectorHit> hits = new ArrayList<>(k);
+        for (Candidate candidate : found) {
+            Node node = node(candidate.node());
+            if (node.deleted) {
+                continue;
+            }
+            hits.add(new VectorHit(node.id, candidate.score()));
+            if (hits.size() == k) {
+                break;
+            }
+        }
+        return hits;
+    }
+
+    private void checkDimensions(int length) {
+        if (dimensions < 0) {
+            synchronized (entryLock) {
+                if (dimensions < 0) {
+                    dimensions = length;
+                }
+            }
+        }
+        if (dimensions != length) {
+            throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다. (인덱스 " + dimensions + ", 입력 " + length + ")");
+        }
+    }
+
+    private int randomLevel() {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(random) * levelMultiplier);
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxConnectionsLevel0 : m;
+    }
+
+    private int appendNode(Node node) {
+        synchronized (growLock) {
+            int index = count;
+            if (index == nodes.length) {
+                nodes = Arrays.copyOf(nodes, index * 2);
+            }
+            nodes[index] = node;
+            count = index + 1;
+            return index;
+        }
+    }
+
+    private Node node(int index) {
+        return nodes[index];
+    }
+
+    private float score(float[] query, int index) {
+        return VectorMath.dot(query, node(index).vector);
+    }
+
+    /**
+     * 한 층에서 더 가까운 이웃이 없을 때까지 이동한다 (ef = 1).
+     */
+    private Candidate greedySearch(float[] query, Candidate entry, int level) {
+        Candidate best = entry;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : node(best.node()).neighbors.get(level)) {
+                float score = score(query, neighbor);
+                if (score > best.score()) {
+                    best = new Candidate(neighbor, score);
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 한 층에서 ef개의 최근접 후보를 찾는다. 반환되는 큐는 점수 오름차순(최소 힙)이다.
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, Collection<Candidate> entries, int ef, int level) {
+        BitSet visited = new BitSet(count);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BY_SCORE_DESC);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(BY_SCORE_ASC);
+        for (Candidate entry : entries) {
+            visited.set(entry.node());
+            candidates.add(entry);
+            results.add(entry);
+            if (results.size() > ef) {
+                results.poll();
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.score() < results.peek().score()) {
+                break;
+            }
+            for (int neighbor : node(current.node()).neighbors.get(level)) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = score(query, neighbor);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static List<Candidate> sortedDescending(PriorityQueue<Candidate> queue) {
+        List<Candidate> sorted = new ArrayList<>(queue);
+        sorted.sort(BY_SCORE_DESC);
+        return sorted;
+    }
+
+    /**
+     * 이웃 선택 휴리스틱: 이미 선택된 이웃보다 기준점에 더 가까운 후보만 고르고,
+     * 자리가 남으면 제외했던 후보를 가까운 순서로 채운다.
+     *
+     * @param candidates 기준점과의 점수 내림차순 후보
+     */
+    private int[] selectNeighbors(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> pruned = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] vector = node(candidate.node()).vector;
+            boolean diverse = true;
+            for (Candidate chosen : selected) {
+                if (score(vector, chosen.node()) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected.stream().mapToInt(Candidate::node).toArray();
+    }
+
+    /**
+     * 노드의 이웃 목록에 추가하고, 최대 연결 수를 넘으면 휴리스틱으로 다시 고른다.
+     */
+    private void connect(int index, int[] additions, int level, int maxConnections) {
+        Node node = node(index);
+        synchronized (node) {
+            int[] current = node.neighbors.get(level);
+            int[] merged = Arrays.copyOf(current, current.length + additions.length);
+            int size = current.length;
+            for (int addition : additions) {
+                if (addition != index && Arrays.stream(current).noneMatch(existing -> existing == addition)) {
+                    merged[size++] = addition;
+                }
+            }
+            if (size <= maxConnections) {
+                node.neighbors.set(level, Arrays.copyOf(merged, size));
+                return;
+            }
+
+            List<Candidate> candidates = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                candidates.add(new Candidate(merged[i], score(node.vector, merged[i])));
+            }
+            candidates.sort(BY_SCORE_DESC);
+            node.neighbors.set(level, selectNeighbors(candidates, maxConnections));
+        }
+    }
+
+    /**
+     * 인덱스를 파일로 저장한다. 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     */
+    public void save(Path path) throws IOException {
+        structureLock.writeLock().lock();
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            int nodeCount = count;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(m);
+                out.writeInt(efConstruction);
+                out.writeInt(dimensions);
+                out.writeInt(nodeCount);
+                out.writeInt(entryPoint);
+                out.writeInt(maxLevel);
+
+                ByteBuffer vectorBuffer = ByteBuffer.allocate(Math.max(dimensions, 0) * Float.BYTES);
+                for (int i = 0; i < nodeCount; i++) {
+                    Node node = node(i);
+                    out.writeUTF(node.id);
+                    out.writeInt(node.level);
+                    out.writeBoolean(node.deleted);
+                    vectorBuffer.clear();
+                    vectorBuffer.asFloatBuffer().put(node.vector);
+                    out.write(vectorBuffer.array());
+                    for (int l = 0; l <= node.level; l++) {
+                        int[] neighbors = node.neighbors.get(l);
+                        out.writeInt(neighbors.length);
+                        for (int neighbor : neighbors) {
+                            out.writeInt(neighbor);
+                        }
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 저장된 인덱스 파일을 읽는다. M과 efConstruction은 파일에 기록된 값을 사용한다.
+     */
+    public static HnswIndex load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("HNSW 인덱스 파일 형식이 올바르지 않습니다: " + path);
+            }
+            HnswIndex index = new HnswIndex(in.readInt(), in.readInt());
+            index.dimensions = in.readInt();
+            int nodeCount = in.readInt();
+            index.entryPoint = in.readInt();
+            index.maxLevel = in.readInt();
+
+            Node[] nodes = new Node[Math.max(nodeCount, 1024)];
+            byte[] vectorBytes = new byte[Math.max(index.dimensions, 0) * Float.BYTES];
+            for (int i = 0; i < nodeCount; i++) {
+                String id = in.readUTF();
+                int level = in.readInt();
+                boolean deleted = in.readBoolean();
+                in.readFully(vectorBytes);
+                float[] vector = new float[index.dimensions];
+                ByteBuffer.wrap(vectorBytes).asFloatBuffer().get(vector);
+
+                Node node = new Node(id, vector, level);
+                node.deleted = deleted;
+                for (int l = 0; l <= level; l++) {
+                    int[] neighbors = new int[in.readInt()];
+                    for (int n = 0; n < neighbors.length; n++) {
+                        neighbors[n] = in.readInt();
+                    }
+                    node.neighbors.set(l, neighbors);
+                }
+                nodes[i] = node;
+                if (deleted) {
+                    index.deletedCount.incrementAndGet();
+                } else {
+                    index.nodeIndexes.put(id, i);
+                }
+            }
+            index.nodes = nodes;
+            index.count = nodeCount;
+            return index;
+        }
+    }
+
+    private static final class Node {
+
+        private final String id;
+        private final float[] vector;
+        private final int level;
+        private final AtomicReferenceArray<int[]> neighbors;
+        private volatile boolean deleted;
+
+        private Node(String id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.neighbors = new AtomicReferenceArray<>(level + 1);
+            for (int l = 0; l <= level; l++) {
+                neighbors.set(l, NO_NEIGHBORS);
+            }
+        }
+    }
+
+    private record Candidate(int node, float score) {
+    }
+}
@@ -0,0 +1,349 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.similarity.QuantizedMatrix;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
+import com.flutter.DataPreprocessingService.service.similarity.TopKCollector;
+import com.flutter.DataPreprocessingService.service.similarity.VectorMath;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품별 청크 임베딩을 힙에 상주시키는 샤드 캐시.
+ *
+ * 상품 하나의 청크는 많아야 수천 개이므로, 자주 검색되는 상품의 벡터와 문서 필드를 한 번 읽어 두면
+ * 상품 범위 검색을 Elasticsearch 왕복 없이 샤드 안의 전수 검색으로 처리할 수 있다.
+ * 샤드는 처음 검색될 때 벡터 세그먼트에서 읽어 오고, 상품 수 상한을 넘으면 가장 오래 쓰지 않은 상품부터 제거한다.
+ * 상품의 문서를 다시 청킹하면 invalidate로 샤드를 버리고 다음 검색 때 다시 읽는다.
+ *
+ * 양자화를 켜면 샤드는 int8 행만 힙에 두고 양자화된 값으로 후보를 고른 뒤,
+ * 최종 후보만 메모리 매핑된 세그먼트의 float 행으로 다시 점수를 매긴다.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductShardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductShardCache.class);
+
+    private final VectorSegmentStore vectorSegmentStore;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // 샤드를 읽는 동안 무효화가 일어났는지 확인하기 위한 세대 번호
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${vector.shard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.shard.max-products:16}")
+    private int maxProducts;
+
+    @Value("${vector.shard.quantization.enabled:true}")
+    private boolean quantizationEnabled;
+
+    @Value("${vector.shard.quantization.rescore:true}")
+    private boolean rescore;
+
+    @Value("${vector.shard.quantization.rescore-oversample:3}")
+    private int rescoreOversample;
+
+    private Map<String, ProductShard> shards;
+
+    @PostConstruct
+    void init() {
+        shards = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProductShard> eldest) {
+                if (size() > maxProducts) {
+                    evictions.incrementAndGet();
+                    logger.info("상품 샤드 제거: {} ({}개 청크)", eldest.getKey(), eldest.getValue().size());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 상품 샤드 안에서 쿼리와 가장 유사한 청크 k개를 찾는다.
+     *
+     * @param productName 상품명
+     * @param queryEmbedding 쿼리 임베딩
+     * @param k 결과 수
+     * @return 유사도 내림차순 문서 목록 (score 필드에 유사도). 상품의 벡터 세그먼트가 없으면 빈 Optional
+     */
+    public Optional<List<ChunkHit>> search(String productName, Embedding queryEmbedding, int k) {
+        if (!enabled || productName == null) {
+            return Optional.empty();
+        }
+        ProductShard shard = shardOf(productName);
+        if (shard.size() == 0) {
+            return Optional.empty();
+        }
+
+        long start = System.nanoTime();
+        float[] query = queryEmbedding.normalized();
+        List<ScoredCandidate> candidates;
+        if (shard.quantized == null) {
+            candidates = shard.searchExact(query, k, -1);
+        } else if (rescore) {
+            candidates = shard.rescore(query, shard.searchQuantized(query, k * rescoreOversample, -1), k);
+        } else {
+            candidates = shard.searchQuantized(query, k, -1);
+        }
+        List<ChunkHit> results = shard.documentsOf(candidates);
+        logger.debug("상품 샤드 검색: {} ({}개 청크, {}us)", productName, shard.size(), (System.nanoTime() - start) / 1_000);
+        return Optional.of(results);
+    }
+
+    /**
+     * 양자화 검색이 float 전수 검색 결과를 얼마나 재현하는지 측정한다.
+     *
+     * 상품의 청크 벡터 일부를 쿼리로 사용하며(자기 자신은 결과에서 제외), float 결과 대비
+     * 양자화 결과와 float 재채점 결과의 recall@k, 그리고 두 표현의 메모리 크기를 보고한다.
+     *
+     * @param productName 상품명
+     * @param k 비교할 결과 수
+     * @param samples 쿼리로 사용할 청크 수
+     * @throws IllegalArgumentException k나 samples가 1보다 작은 경우
+     */
+    public Map<String, Object> checkQuantizationRecall(String productName, int k, int samples) {
+        if (k < 1 || samples < 1) {
+            throw new IllegalArgumentException("k와 samples는 1 이상이어야 합니다: k=" + k + ", samples=" + samples);
+        }
+        ProductShard shard = load(productName, false);
+        if (shard.size() < 2) {
+            return Map.of("productName", productName, "chunks", shard.size());
+        }
+        QuantizedMatrix quantized = QuantizedMatrix.quantize(shard.vectors);
+        ProductShard quantizedShard = shard.withQuantized(quantized);
+
+        int queries = Math.min(samples, shard.size());
+        int step = Math.max(1, shard.size() / queries);
+        double quantizedRecall = 0;
+        double rescoredRecall = 0;
+        int measured = 0;
+        for (int row = 0; row < shard.size() && measured < queries; row += step, measured++) {
+            float[] query = shard.vectors[row];
+            Set<Integer> expected = indexesOf(shard.searchExact(query, k, row));
+            quantizedRecall += recall(expected, quantizedShard.searchQuantized(query, k, row));
+            rescoredRecall += recall(expected, quantizedShard.rescore(query,
+                    quantizedShard.searchQuantized(query, k * rescoreOversample, row), k));
+        }
+
+        long floatBytes = (long) shard.size() * shard.vectors[0].length * Float.BYTES;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("productName", productName);
+        report.put("chunks", shard.size());
+        report.put("queries", measured);
+        report.put("k", k);
+        report.put("recallQuantized", quantizedRecall / measured);
+        report.put("recallRescored", rescoredRecall / measured);
+        report.put("rescoreOversample", rescoreOversample);
+        report.put("floatBytes", floatBytes);
+        report.put("quantizedBytes", quantized.sizeBytes());
+        report.put("compressionRatio", (double) floatBytes / quantized.sizeBytes());
+        logger.info("양자화 recall 점검: {}", report);
+        return report;
+    }
+
+    private static Set<Integer> indexesOf(List<ScoredCandidate> candidates) {
+        Set<Integer> indexes = new HashSet<>();
+        for (ScoredCandidate candidate : candidates) {
+            indexes.add(candidate.index());
+        }
+        return indexes;
+    }
+
+    private static double recall(Set<Integer> expected, List<ScoredCandidate> actual) {
+        if (expected.isEmpty()) {
+            return 1.0;
+        }
+        long found = actual.stream().filter(candidate -> expected.contains(candidate.index())).count();
+        return (double) found / expected.size();
+    }
+
+    private ProductShard shardOf(String productName) {
+        long observedGeneration;
+        synchronized (shards) {
+            ProductShard shard = shards.get(productName);
+            if (shard != null) {
+                hits.incrementAndGet();
+                return shard;
+            }
+            observedGeneration = generation.get();
+        }
+        misses.incrementAndGet();
+
+        ProductShard shard = load(productName, quantizationEnabled);
+        synchronized (shards) {
+            // 읽는 동안 무효화되었다면 낡은 샤드일 수 있으므로 이번 검색에만 쓰고 보관하지 않는다.
+            if (shard.size() > 0 && generation.get() == observedGeneration) {
+                shards.put(productName, shard);
+            }
+        }
+        return shard;
+    }
+
+    private ProductShard load(String productName, boolean quantize) {
+        long start = System.nanoTime();
+        List<VectorSegment> segments = vectorSegmentStore.segmentsOf(productName);
+        int rows = segments.stream().mapToInt(VectorSegment::rowCount).sum();
+
+        float[][] vectors = new float[rows][];
+        int[] segmentIndexes = new int[rows];
+        int[] segmentRows = new int[rows];
+        List<ChunkHit> documents = new ArrayList<>(rows);
+        int index = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            VectorSegment segment = segments.get(s);
+            for (int row = 0; row < segment.rowCount(); row++, index++) {
+                documents.add(vectorSegmentStore.readHit(segment, row));
+                vectors[index] = segment.vector(row);
+                segmentIndexes[index] = s;
+                segmentRows[index] = row;
+            }
+        }
+
+        ProductShard shard = new ProductShard(segments, segmentIndexes, segmentRows, vectors, null, documents);
+        if (quantize && rows > 0) {
+            // 양자화된 샤드는 float 행을 힙에 두지 않는다 (재채점은 세그먼트에서 읽음)
+            shard = new ProductShard(segments, segmentIndexes, segmentRows, null, QuantizedMatrix.quantize(vectors), documents);
+        }
+        if (rows > 0) {
+            logger.info("상품 샤드 로드: {} ({}개 청크, {}바이트, {}ms)",
+                    productName, rows, shard.vectorBytes(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return shard;
+    }
+
+    /**
+     * 상품의 샤드를 버린다. 상품 문서를 다시 청킹하여 세그먼트가 바뀌었을 때 호출한다.
+     */
+    public void invalidate(String productName) {
+        synchronized (shards) {
+            generation.incrementAndGet();
+            if (shards.remove(productName) != null) {
+                logger.info("상품 샤드 무효화: {}", productName);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (shards) {
+            return Map.of(
+                    "products", shards.size(),
+                    "chunks", shards.values().stream().mapToInt(ProductShard::size).sum(),
+                    "vectorBytes", shards.values().stream().mapToLong(ProductShard::vectorBytes).sum(),
+                    "quantized", quantizationEnabled,
+                    "hits", hits.get(),
+                    "misses", misses.get(),
+                    "evictions", evictions.get()
+            );
+        }
+    }
+
+    /**
+     * 상품 하나의 벡터 행과 문서 필드. vectors(float)와 quantized(int8) 중 하나를 가진다.
+     */
+    private static final class ProductShard {
+
+        private final List<VectorSegment> segments;
+        private final int[] segmentIndexes;
+        private final int[] segmentRows;
+        private final float[][] vectors;
+        private final QuantizedMatrix quantized;
+        private final List<ChunkHit> documents;
+
+        ProductShard(List<VectorSegment> segments, int[] segmentIndexes, int[] segmentRows,
+                     float[][] vectors, QuantizedMatrix quantized, List<ChunkHit> documents) {
+            this.segments = segments;
+            this.segmentIndexes = segmentIndexes;
+            this.segmentRows = segmentRows;
+            this.vectors = vectors;
+            this.quantized = quantized;
+            this.documents = documents;
+        }
+
+        ProductShard withQuantized(QuantizedMatrix quantized) {
+            return new ProductShard(segments, segmentIndexes, segmentRows, vectors, quantized, documents);
+        }
+
+        int size() {
+            return documents.size();
+        }
+
+        long vectorBytes() {
+            return quantized != null ? quantized.sizeBytes() : (long) vectors.length * (vectors.length == 0 ? 0 : vectors[0].length) * Float.BYTES;
+        }
+
+        /**
+         * float 행과의 정확한 내적. 힙에 float 행이 없으면 세그먼트의 매핑된 행을 읽는다.
+         */
+        float exactDot(float[] query, int row) {
+            if (vectors != null) {
+                return VectorMath.dot(query, vectors[row]);
+            }
+            return segments.get(segmentIndexes[row]).dot(query, segmentRows[row]);
+        }
+
+        /**
+         * @param excludedRow 결과에서 제외할 행 (없으면 -1)
+         */
+        List<ScoredCandidate> searchExact(float[] query, int k, int excludedRow) {
+            TopKCollector collector = new TopKCollector(Math.min(k, size()));
+            for (int row = 0; row < size(); row++) {
+                if (row != excludedRow) {
+                    collector.offer(row, exactDot(query, row));
+                }
+            }
+            return collector.drain();
+        }
+
+        List<ScoredCandidate> searchQuantized(float[] query, int k, int excludedRow) {
+            float querySum = QuantizedMatrix.sum(query);
+            TopKCollector collector = new TopKCollector(Math.min(k, size()));
+            for (int row = 0; row < size(); row++) {
+                if (row != excludedRow) {
+                    collector.offer(row, quantized.dot(query, querySum, row));
+                }
+            }
+            return collector.drain();
+        }
+
+        /**
+         * 양자화 점수로 고른 후보를 float 행으로 다시 채점해 상위 k개를 고른다.
+         */
+        List<ScoredCandidate> rescore(float[] query, List<ScoredCandidate> candidates, int k) {
+            TopKCollector collector = new TopKCollector(k);
+            for (ScoredCandidate candidate : candidates) {
+                collector.offer(candidate.index(), exactDot(query, candidate.index()));
+            }
+            return collector.drain();
+        }
+
+        List<ChunkHit> documentsOf(List<ScoredCandidate> candidates) {
+            List<ChunkHit> results = new ArrayList<>(candidates.size());
+            for (ScoredCandidate candidate : candidates) {
+                results.add(documents.get(candidate.index()).withScore((double) candidate.score()));
+            }
+            return results;
+        }
+    }
+}
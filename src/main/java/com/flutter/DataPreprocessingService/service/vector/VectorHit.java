@@ -0,0 +1,7 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+/**
+ * 벡터 검색 결과 항목. id는 청크 문서 ID, score는 코사인 유사도이다.
+ */
+public record VectorHit(String id, float score) {
+}
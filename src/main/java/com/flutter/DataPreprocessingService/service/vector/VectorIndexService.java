@@ -0,0 +1,155 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 청크 임베딩에 대한 프로세스 내 HNSW 벡터 인덱스를 관리하는 서비스.
+ *
+ * 인제스트 시 청크 임베딩을 추가하거나 삭제된 청크를 지우고, 키워드 검색 결과와 무관하게 의미 기반 상위 K개를 바로 찾는다.
+ * 인덱스는 시작 시 디스크에서 읽고, 인제스트가 끝날 때와 종료 시 변경분이 있으면 저장한다.
+ */
+@Service
+public class VectorIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorIndexService.class);
+
+    @Value("${vector.hnsw.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.hnsw.m:16}")
+    private int m;
+
+    @Value("${vector.hnsw.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${vector.hnsw.ef-search:64}")
+    private int efSearch;
+
+    @Value("${vector.hnsw.file:cache/vector/hnsw.bin}")
+    private String indexFile;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private HnswIndex index;
+
+    @PostConstruct
+    void load() {
+        index = new HnswIndex(m, efConstruction);
+        if (!enabled) {
+            return;
+        }
+        Path path = Paths.get(indexFile);
+        if (!Files.exists(path)) {
+            logger.info("HNSW 인덱스 파일이 없어 빈 인덱스로 시작합니다: {}", path);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            index = HnswIndex.load(path);
+            logger.info("HNSW 인덱스 로드 완료: {}개 벡터, {}차원, 최대 레벨 {} ({}ms)",
+                    index.size(), index.dimensions(), index.maxLevel(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.warn("HNSW 인덱스 로드 실패, 빈 인덱스로 시작합니다: {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        persist();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 청크 임베딩을 인덱스에 추가한다. 같은 청크 ID로 다시 추가하면 새 벡터로 대체된다.
+     */
+    public void add(String chunkId, Embedding embedding) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (index.add(chunkId, embedding)) {
+                dirty.set(true);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("HNSW 인덱스 추가 실패: {}", chunkId, e);
+        }
+    }
+
+    /**
+     * 청크를 인덱스에서 지운다. Elasticsearch에서 삭제된 청크가 검색 결과에 남지 않도록 삭제 경로에서 호출한다.
+     */
+    public void remove(Collection<String> chunkIds) {
+        if (!enabled) {
+            return;
+        }
+        int removed = 0;
+        for (String chunkId : chunkIds) {
+            if (index.remove(chunkId)) {
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            dirty.set(true);
+            logger.info("HNSW 인덱스에서 청크 {}개 삭제", removed);
+        }
+    }
+
+    /**
+     * 쿼리 임베딩과 가장 유사한 청크 k개를 찾는다.
+     *
+     * @return 유사도 내림차순 청크 ID와 점수
+     */
+    public List<VectorHit> search(Embedding queryEmbedding, int k) {
+        if (!enabled) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<VectorHit> hits = index.search(queryEmbedding, k, efSearch);
+        logger.debug("HNSW 검색: {}개 결과 ({}us)", hits.size(), (System.nanoTime() - start) / 1_000);
+        return hits;
+    }
+
+    /**
+     * 변경분이 있으면 인덱스를 디스크에 저장한다.
+     */
+    public synchronized void persist() {
+        if (!enabled || !dirty.getAndSet(false)) {
+            return;
+        }
+        Path path = Paths.get(indexFile);
+        try {
+            long start = System.nanoTime();
+            index.save(path);
+            logger.info("HNSW 인덱스 저장 완료: {}개 벡터 ({}ms)", index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            dirty.set(true);
+            logger.warn("HNSW 인덱스 저장 실패: {}", path, e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "vectors", index.size(),
+                "deleted", index.deletedCount(),
+                "dimensions", index.dimensions(),
+                "maxLevel", index.maxLevel()
+        );
+    }
+}
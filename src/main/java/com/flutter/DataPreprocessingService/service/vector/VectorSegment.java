@@ -0,0 +1,271 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.similarity.TopKCollector;
+import com.flutter.DataPreprocessingService.service.similarity.VectorMath;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 청크 ID, 메타데이터, 임베딩 행을 한 파일에 담는 불변 세그먼트.
+ *
+ * 파일 전체를 읽기 전용으로 메모리 매핑하므로 벡터가 힙에 올라오지 않으며,
+ * 전수 검색(scan)은 매핑된 영역의 행을 배열로 복사하지 않고 바로 내적한다.
+ * 세그먼트 파일만 복사하면 다른 노드에서도 재임베딩이나 Elasticsearch 조회 없이 바로 검색할 수 있다.
+ *
+ * 파일 형식 (little-endian):
+ * <pre>
+ * [0]  헤더 64바이트: magic, version, encoding, dimensions, rowCount, productName 길이 (int * 6),
+ *      idsOffset, metadataOffset, vectorsOffset, fileSize (long * 4)
+ * [64] productName (UTF-8)
+ * [idsOffset]      ID 섹션: 오프셋 int * (rowCount + 1), UTF-8 ID 바이트
+ * [metadataOffset] 메타데이터 섹션: 오프셋 int * (rowCount + 1), 행별 JSON 바이트
+ * [vectorsOffset]  64바이트 정렬, 단위 벡터 행 float32 * dimensions * rowCount
+ * </pre>
+ */
+public final class VectorSegment {
+
+    public static final String FILE_SUFFIX = ".vseg";
+
+    private static final int MAGIC = 0x56534547; // "VSEG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int ENCODING_FLOAT32 = 0;
+    private static final int HEADER_SIZE = 64;
+    private static final int VECTOR_ALIGNMENT = 64;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final String productName;
+    private final int dimensions;
+    private final int rowCount;
+    private final int idsOffset;
+    private final int metadataOffset;
+    private final int vectorsOffset;
+    private final int rowBytes;
+
+    private VectorSegment(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("벡터 세그먼트 파일 형식이 올바르지 않습니다: " + path);
+        }
+        if (buffer.getInt(8) != ENCODING_FLOAT32) {
+            throw new IOException("지원하지 않는 벡터 인코딩입니다: " + buffer.getInt(8) + " (" + path + ")");
+        }
+        this.dimensions = buffer.getInt(12);
+        this.rowCount = buffer.getInt(16);
+        byte[] productBytes = new byte[buffer.getInt(20)];
+        buffer.get(HEADER_SIZE, productBytes);
+        this.productName = new String(productBytes, StandardCharsets.UTF_8);
+        this.idsOffset = (int) buffer.getLong(24);
+        this.metadataOffset = (int) buffer.getLong(32);
+        this.vectorsOffset = (int) buffer.getLong(40);
+        if (buffer.getLong(48) != buffer.capacity()) {
+            throw new IOException("벡터 세그먼트 파일이 손상되었습니다 (크기 불일치): " + path);
+        }
+        this.rowBytes = dimensions * Float.BYTES;
+    }
+
+    /**
+     * 세그먼트 파일을 메모리 매핑으로 연다. 매핑은 파일 채널을 닫은 뒤에도 유효하다.
+     */
+    public static VectorSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            return new VectorSegment(path, mapped);
+        }
+    }
+
+    /**
+     * 행 목록으로 세그먼트 파일을 만든다. 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     * find가 이진 탐색을 하므로 행은 ID 순으로 정렬되어 있어야 한다.
+     */
+    public static void write(Path path, String productName, List<Row> rows) throws IOException {
+        int dimensions = rows.isEmpty() ? 0 : rows.get(0).embedding().dimensions();
+        byte[] productBytes = productName.getBytes(StandardCharsets.UTF_8);
+        byte[][] ids = new byte[rows.size()][];
+        byte[][] metadata = new byte[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (row.embedding().dimensions() != dimensions) {
+                throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다: " + row.id());
+            }
+            ids[i] = row.id().getBytes(StandardCharsets.UTF_8);
+            metadata[i] = row.metadata();
+        }
+
+        long idsOffset = HEADER_SIZE + productBytes.length;
+        long metadataOffset = idsOffset + sectionSize(ids);
+        long vectorsOffset = align(metadataOffset + sectionSize(metadata));
+        long fileSize = vectorsOffset + (long) rows.size() * dimensions * Float.BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("벡터 세그먼트가 2GB를 넘습니다: " + path);
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(ENCODING_FLOAT32).putInt(dimensions)
+                    .putInt(rows.size()).putInt(productBytes.length)
+                    .putLong(idsOffset).putLong(metadataOffset).putLong(vectorsOffset).putLong(fileSize);
+            header.clear();
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(productBytes));
+            writeSection(channel, ids);
+            writeSection(channel, metadata);
+            writeFully(channel, ByteBuffer.allocate((int) (vectorsOffset - channel.position())));
+
+            ByteBuffer vector = ByteBuffer.allocate(dimensions * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (Row row : rows) {
+                vector.clear();
+                vector.asFloatBuffer().put(row.embedding().normalized());
+                writeFully(channel, vector);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sectionSize(byte[][] blobs) {
+        long size = (long) (blobs.length + 1) * Integer.BYTES;
+        for (byte[] blob : blobs) {
+            size += blob.length;
+        }
+        return size;
+    }
+
+    private static long align(long offset) {
+        return (offset + VECTOR_ALIGNMENT - 1) / VECTOR_ALIGNMENT * VECTOR_ALIGNMENT;
+    }
+
+    private static void writeSection(FileChannel channel, byte[][] blobs) throws IOException {
+        ByteBuffer offsets = ByteBuffer.allocate((blobs.length + 1) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = 0;
+        offsets.putInt(offset);
+        for (byte[] blob : blobs) {
+            offset += blob.length;
+            offsets.putInt(offset);
+        }
+        offsets.clear();
+        writeFully(channel, offsets);
+        for (byte[] blob : blobs) {
+            writeFully(channel, ByteBuffer.wrap(blob));
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public String productName() {
+        return productName;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    public String id(int row) {
+        return new String(blob(idsOffset, row), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * ID로 행을 찾는다. 행은 ID 순으로 기록되므로 이진 탐색한다.
+     *
+     * @return 행 번호 (없으면 -1)
+     */
+    public int find(String id) {
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compared = id(mid).compareTo(id);
+            if (compared < 0) {
+                low = mid + 1;
+            } else if (compared > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 행의 단위 벡터를 힙 배열로 복사한다.
+     */
+    public float[] vector(int row) {
+        float[] vector = new float[dimensions];
+        buffer.slice(vectorsOffset + row * rowBytes, rowBytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * 쿼리(단위 벡터)와 행 하나의 내적. 행을 힙으로 복사하지 않는다.
+     */
+    public float dot(float[] query, int row) {
+        return VectorMath.dot(query, buffer, vectorsOffset + row * rowBytes);
+    }
+
+    /**
+     * 행의 메타데이터 JSON 바이트.
+     */
+    public byte[] metadata(int row) {
+        return blob(metadataOffset, row);
+    }
+
+    private byte[] blob(int sectionOffset, int row) {
+        int start = buffer.getInt(sectionOffset + row * Integer.BYTES);
+        int end = buffer.getInt(sectionOffset + (row + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(sectionOffset + (rowCount + 1) * Integer.BYTES + start, bytes);
+        return bytes;
+    }
+
+    /**
+     * 모든 행과 쿼리(단위 벡터)의 내적을 계산해 수집기에 넣는다. 행마다 객체를 만들지 않는다.
+     *
+     * @param rowBase 수집기에 넣을 때 행 번호에 더할 값 (여러 세그먼트를 함께 검색할 때 사용)
+     */
+    public void scan(float[] query, TopKCollector collector, int rowBase) {
+        if (rowCount > 0 && query.length != dimensions) {
+            throw new IllegalArgumentException("벡터의 크기가 일치하지 않습니다.");
+        }
+        for (int row = 0; row < rowCount; row++) {
+            collector.offer(rowBase + row, VectorMath.dot(query, buffer, vectorsOffset + row * rowBytes));
+        }
+    }
+
+    /**
+     * 세그먼트에 기록할 행. metadata는 검색 결과로 돌려줄 문서 필드의 JSON 바이트이다.
+     */
+    public record Row(String id, Embedding embedding, byte[] metadata) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.similarity.ScoredCandidate;
+import com.flutter.DataPreprocessingService.service.similarity.TopKCollector;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 문서별 벡터 세그먼트 파일을 관리하고 메모리 매핑된 세그먼트를 전수 검색하는 서비스.
+ *
+ * 문서(파일) 하나의 청크가 세그먼트 하나가 되며, 같은 문서를 다시 청킹하면 세그먼트 전체를 교체한다.
+ * 시작 시 세그먼트 디렉터리의 파일을 매핑만 하므로, 파일을 복사해 온 새 노드도 바로 검색할 수 있다.
+ */
+@Service
+public class VectorSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorSegmentStore.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, VectorSegment> segments = new ConcurrentHashMap<>();
+
+    @Value("${vector.segment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${vector.segment.dir:cache/vector/segments}")
+    private String segmentDir;
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path root = Paths.get(segmentDir);
+        Files.createDirectories(root);
+
+        long start = System.nanoTime();
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(path -> path.getFileName().toString().endsWith(VectorSegment.FILE_SUFFIX)).forEach(path -> {
+                try {
+                    String key = path.getFileName().toString().replace(VectorSegment.FILE_SUFFIX, "");
+                    segments.put(key, VectorSegment.open(path));
+                } catch (IOException e) {
+                    logger.warn("벡터 세그먼트 로드 실패: {}", path, e);
+                }
+            });
+        }
+        logger.info("벡터 세그먼트 로드 완료: {}개 세그먼트, {}개 행 ({}ms)",
+                segments.size(), totalRows(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 검색 결과로 돌려줄 문서 필드(임베딩 제외)를 JSON으로 직렬화해 세그먼트 행을 만든다.
+     */
+    public VectorSegment.Row rowOf(String chunkId, Embedding embedding, Map<String, Object> document) {
+        Map<String, Object> metadata = new HashMap<>(document);
+        metadata.remove("embedding");
+        try {
+            return new VectorSegment.Row(chunkId, embedding, objectMapper.writeValueAsBytes(metadata));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("세그먼트 메타데이터 직렬화 실패: " + chunkId, e);
+        }
+    }
+
+    /**
+     * 문서의 세그먼트를 새 행으로 교체한다.
+     *
+     * @param fileName 문서 파일명 (세그먼트 파일 이름의 기준)
+     * @param productName 상품명
+     * @param rows 청크 행 목록
+     */
+    public void writeDocumentSegment(String fileName, String productName, List<VectorSegment.Row> rows) {
+        if (!enabled) {
+            return;
+        }
+        String key = keyOf(fileName);
+        Path path = Paths.get(segmentDir).resolve(key + VectorSegment.FILE_SUFFIX);
+
+        List<VectorSegment.Row> sortedRows = new ArrayList<>(rows);
+        sortedRows.sort(Comparator.comparing(VectorSegment.Row::id));
+        try {
+            VectorSegment.write(path, productName, sortedRows);
+            segments.put(key, VectorSegment.open(path));
+            logger.info("벡터 세그먼트 저장: {} ({}, {}개 행)", path, productName, sortedRows.size());
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("벡터 세그먼트 저장 실패: {}", path, e);
+        }
+    }
+
+    /**
+     * 문서 세그먼트에서 청크 ID로 색인 시 저장한 임베딩(단위 벡터)을 찾는다.
+     *
+     * @param fileName 청크의 원본 파일명
+     * @param chunkId 청크 문서 ID
+     * @return 임베딩 (세그먼트나 행이 없으면 빈 Optional)
+     */
+    public Optional<Embedding> findEmbedding(String fileName, String chunkId) {
+        if (!enabled || fileName == null || chunkId == null) {
+            return Optional.empty();
+        }
+        VectorSegment segment = segments.get(keyOf(fileName));
+        if (segment == null) {
+            return Optional.empty();
+        }
+        int row = segment.find(chunkId);
+        return row < 0 ? Optional.empty() : Optional.of(Embedding.of(segment.vector(row)));
+    }
+
+    private static String keyOf(String fileName) {
+        return UUID.nameUUIDFromBytes(fileName.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * 세그먼트를 전수 검색하여 쿼리와 가장 유사한 청크 k개를 찾는다.
+     *
+     * @param productName 지정하면 해당 상품의 세그먼트만 검색한다 (null이면 전체)
+     * @return 유사도 내림차순 검색 결과 (score 필드에 유사도)
+     */
+    public List<ChunkHit> search(Embedding queryEmbedding, String productName, int k) {
+        List<VectorSegment> targets = segments.values().stream()
+                .filter(segment -> productName == null || Objects.equals(segment.productName(), productName))
+                .toList();
+
+        float[] query = queryEmbedding.normalized();
+        int[] rowBases = new int[targets.size()];
+        TopKCollector collector = new TopKCollector(k);
+        int rowBase = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            rowBases[i] = rowBase;
+            targets.get(i).scan(query, collector, rowBase);
+            rowBase += targets.get(i).rowCount();
+        }
+
+        List<ChunkHit> hits = new ArrayList<>(collector.size());
+        for (ScoredCandidate candidate : collector.drain()) {
+            int segmentIndex = segmentOf(rowBases, candidate.index());
+            VectorSegment segment = targets.get(segmentIndex);
+            int row = candidate.index() - rowBases[segmentIndex];
+            hits.add(readHit(segment, row).withScore((double) candidate.score()));
+        }
+        logger.debug("벡터 세그먼트 전수 검색: {}개 세그먼트, {}개 행", targets.size(), rowBase);
+        return hits;
+    }
+
+    /**
+     * 상품의 세그먼트 목록을 반환한다.
+     */
+    public List<VectorSegment> segmentsOf(String productName) {
+        return segments.values().stream()
+                .filter(segment -> Objects.equals(segment.productName(), productName))
+                .toList();
+    }
+
+    private static int segmentOf(int[] rowBases, int index) {
+        int segmentIndex = 0;
+        while (segmentIndex + 1 < rowBases.length && rowBases[segmentIndex + 1] <= index) {
+            segmentIndex++;
+        }
+        return segmentIndex;
+    }
+
+    /**
+     * 세그먼트 행의 메타데이터 JSON을 검색 결과 타입으로 바로 읽는다.
+     */
+    public ChunkHit readHit(VectorSegment segment, int row) {
+        try {
+            return objectMapper.readValue(segment.metadata(row), ChunkHit.class).withHitMetadata(segment.id(row), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("세그먼트 메타데이터 읽기 실패: " + segment.path(), e);
+        }
+    }
+
+    private long totalRows() {
+        return segments.values().stream().mapToLong(VectorSegment::rowCount).sum();
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "segments", segments.size(),
+                "rows", totalRows(),
+                "bytes", segments.values().stream().mapToLong(VectorSegment::sizeBytes).sum()
+        );
+    }
+}
@@ -0,0 +1,147 @@
+package com.flutter.DataPreprocessingService.service.embedding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 임베딩 캐시의 힙/디스크 단계와 재시작 시 디스크 파일 복원을 확인한다.
+ */
+class EmbeddingCacheTest {
+
+    private static final String MODEL = "solar-embedding-1-large-passage";
+    private static final long DISK_MAX_SIZE_MB = 16;
+
+    @TempDir
+    Path cacheDir;
+
+    private EmbeddingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = open(DISK_MAX_SIZE_MB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(cache, "close");
+    }
+
+    @Test
+    void keyIgnoresWhitespaceDifferences() {
+        assertEquals(cache.keyOf(MODEL, "해지  환급금\n안내 "), cache.keyOf(MODEL, "해지 환급금 안내"));
+        assertNotEquals(cache.keyOf(MODEL, "해지 환급금"), cache.keyOf("solar-embedding-1-large-query", "해지 환급금"));
+    }
+
+    @Test
+    void entriesAreReadFromDiskAfterRestart() {
+        for (int i = 0; i < 3; i++) {
+            cache.put(keyOf(i), embeddingOf(i));
+        }
+
+        cache = reopen();
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(embeddingOf(i).values(), cache.get(keyOf(i)).orElseThrow().values());
+        }
+        assertEquals(3L, cache.stats().get("diskHits"));
+    }
+
+    @Test
+    void truncatedTailRecordIsDroppedAndFileKeepsAppending() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            cache.put(keyOf(i), embeddingOf(i));
+        }
+        long completeSize = (long) cache.stats().get("diskBytes");
+        ReflectionTestUtils.invokeMethod(cache, "close");
+        // 마지막 레코드를 쓰는 도중 프로세스가 종료된 경우
+        Path file = cacheDir.resolve("embeddings.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(completeSize - 6);
+        }
+
+        cache = open(DISK_MAX_SIZE_MB);
+
+        assertEquals(2, cache.stats().get("diskEntries"));
+        assertTrue(cache.get(keyOf(2)).isEmpty());
+        long recoveredSize = (long) cache.stats().get("diskBytes");
+        assertEquals(recoveredSize, Files.size(file));
+
+        cache.put(keyOf(2), embeddingOf(2));
+        cache.put(keyOf(3), embeddingOf(3));
+        cache = reopen();
+
+        assertEquals(4, cache.stats().get("diskEntries"));
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(embeddingOf(i).values(), cache.get(keyOf(i)).orElseThrow().values());
+        }
+    }
+
+    @Test
+    void heapKeepsMostRecentlyUsedEntries() {
+        ReflectionTestUtils.setField(cache, "heapMaxEntries", 2);
+        cache.put(keyOf(0), embeddingOf(0));
+        cache.put(keyOf(1), embeddingOf(1));
+        cache.get(keyOf(0));
+        cache.put(keyOf(2), embeddingOf(2));
+
+        assertEquals(2, cache.stats().get("heapEntries"));
+        // 힙에서 밀려난 항목은 디스크에서 읽는다
+        cache.get(keyOf(1));
+        assertEquals(1L, cache.stats().get("diskHits"));
+    }
+
+    @Test
+    void writesBeyondDiskLimitAreRejectedAndCounted() {
+        cache = reopenWithDiskLimit(0L);
+
+        cache.put(keyOf(0), embeddingOf(0));
+
+        assertEquals(0, cache.stats().get("diskEntries"));
+        assertEquals(1L, cache.stats().get("diskRejectedWrites"));
+        // 디스크에 기록하지 못해도 힙에는 남는다
+        assertArrayEquals(embeddingOf(0).values(), cache.get(keyOf(0)).orElseThrow().values());
+        cache = reopen();
+        assertTrue(cache.get(keyOf(0)).isEmpty());
+    }
+
+    private EmbeddingCache reopen() {
+        return reopenWithDiskLimit(DISK_MAX_SIZE_MB);
+    }
+
+    private EmbeddingCache reopenWithDiskLimit(long diskMaxSizeMb) {
+        ReflectionTestUtils.invokeMethod(cache, "close");
+        return open(diskMaxSizeMb);
+    }
+
+    private EmbeddingCache open(long diskMaxSizeMb) {
+        EmbeddingCache opened = new EmbeddingCache();
+        ReflectionTestUtils.setField(opened, "enabled", true);
+        ReflectionTestUtils.setField(opened, "heapMaxEntries", 100);
+        ReflectionTestUtils.setField(opened, "cacheDir", cacheDir.toString());
+        ReflectionTestUtils.setField(opened, "diskMaxSizeMb", diskMaxSizeMb);
+        ReflectionTestUtils.invokeMethod(opened, "init");
+        return opened;
+    }
+
+    private String keyOf(int i) {
+        return cache.keyOf(MODEL, "청크 " + i);
+    }
+
+    private static Embedding embeddingOf(int i) {
+        return Embedding.of(new float[]{i, i + 0.5f, -i, 1f});
+    }
+}
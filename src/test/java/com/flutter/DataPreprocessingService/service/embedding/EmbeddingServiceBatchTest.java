@@ -0,0 +1,161 @@
+package com.flutter.DataPreprocessingService.service.embedding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 HTTP 서버를 Upstage 임베딩 API 대신 사용하여 배치 분할과 입력 순서 보존을 확인한다.
+ */
+class EmbeddingServiceBatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 요청마다 받은 입력 목록 (도착 순)
+    private final List<List<String>> requests = new CopyOnWriteArrayList<>();
+
+    private HttpServer apiServer;
+    private ExecutorService apiExecutor;
+    private EmbeddingService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        apiServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        apiServer.createContext("/v1/solar/embeddings", exchange -> {
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            List<String> inputs = new ArrayList<>();
+            request.path("input").forEach(input -> inputs.add(input.asText()));
+            requests.add(inputs);
+            // 앞쪽 배치일수록 늦게 응답해 배치 완료 순서가 입력 순서와 달라지게 한다
+            sleep(Math.max(0, 200 - numberOf(inputs.get(0)) * 10L));
+
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode data = response.putArray("data");
+            // 응답 항목도 역순으로 보내 index 필드로 자리를 찾는지 확인한다
+            for (int i = inputs.size() - 1; i >= 0; i--) {
+                ObjectNode item = data.addObject();
+                item.put("object", "embedding");
+                item.put("index", i);
+                ArrayNode embedding = item.putArray("embedding");
+                for (float value : embeddingOf(inputs.get(i))) {
+                    embedding.add(value);
+                }
+            }
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        apiExecutor = Executors.newCachedThreadPool();
+        apiServer.setExecutor(apiExecutor);
+        apiServer.start();
+
+        EmbeddingCache cache = new EmbeddingCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        ReflectionTestUtils.setField(cache, "heapMaxEntries", 100);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+
+        service = new EmbeddingService(cache, null);
+        ReflectionTestUtils.setField(service, "upstageApiUrl", "http://127.0.0.1:" + apiServer.getAddress().getPort());
+        ReflectionTestUtils.setField(service, "upstageApiKey", "test");
+        ReflectionTestUtils.setField(service, "batchMaxInputs", 4);
+        ReflectionTestUtils.setField(service, "batchMaxTokens", 1000);
+        ReflectionTestUtils.setField(service, "batchParallelism", 4);
+        ReflectionTestUtils.setField(service, "embeddingDimensions", 2);
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "shutdown");
+        apiServer.stop(0);
+        apiExecutor.shutdownNow();
+    }
+
+    @Test
+    void batchesCompletingOutOfOrderKeepInputOrder() {
+        List<String> passages = passages(18);
+
+        List<Embedding> embeddings = service.getPassageEmbeddings(passages);
+
+        assertInputOrder(passages, embeddings);
+        assertEquals(5, requests.size());
+        assertTrue(requests.stream().allMatch(batch -> batch.size() <= 4));
+    }
+
+    @Test
+    void asyncBatchesKeepInputOrder() {
+        List<String> passages = passages(18);
+
+        List<Embedding> embeddings = service.getPassageEmbeddingsAsync(passages).block();
+
+        assertInputOrder(passages, embeddings);
+        assertEquals(5, requests.size());
+    }
+
+    @Test
+    void batchesAreContiguousAndRespectTokenLimit() {
+        ReflectionTestUtils.setField(service, "batchMaxTokens", 10);
+        List<String> passages = List.of("청크 1", "청크 2", "청크 3 " + "가".repeat(20), "청크 4", "청크 5");
+
+        List<Embedding> embeddings = service.getPassageEmbeddings(passages);
+
+        assertInputOrder(passages, embeddings);
+        List<List<String>> sorted = requests.stream()
+                .sorted((a, b) -> Integer.compare(numberOf(a.get(0)), numberOf(b.get(0))))
+                .toList();
+        // 한도를 넘는 입력은 단독 요청으로 보낸다
+        assertEquals(List.of(List.of("청크 1", "청크 2"), List.of(passages.get(2)), List.of("청크 4", "청크 5")), sorted);
+    }
+
+    private static void assertInputOrder(List<String> passages, List<Embedding> embeddings) {
+        assertEquals(passages.size(), embeddings.size());
+        for (int i = 0; i < passages.size(); i++) {
+            assertArrayEquals(embeddingOf(passages.get(i)), embeddings.get(i).values(), passages.get(i));
+        }
+    }
+
+    private static List<String> passages(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "청크 " + i).toList();
+    }
+
+    /**
+     * 입력마다 다른 임베딩: [청크 번호, 글자 수]
+     */
+    private static float[] embeddingOf(String input) {
+        return new float[]{numberOf(input), input.length()};
+    }
+
+    private static int numberOf(String input) {
+        return Integer.parseInt(input.split(" ")[1]);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.flutter.DataPreprocessingService.service.indexing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 판매일자 입력 형식이 인덱스의 date 형식으로 정규화되는지 확인한다.
+ */
+class SaleDatesTest {
+
+    @Test
+    void supportedFormatsAreNormalized() {
+        assertEquals("2024-03-01", SaleDates.toIsoDate("2024-03-01"));
+        assertEquals("2024-03-01", SaleDates.toIsoDate("20240301"));
+        assertEquals("2024-03-01", SaleDates.toIsoDate(" 2024.03.01 "));
+        assertEquals("2024-03-01", SaleDates.toIsoDate("2024/03/01"));
+    }
+
+    @Test
+    void missingOrUnparsableDateIsNull() {
+        assertNull(SaleDates.toIsoDate(null));
+        assertNull(SaleDates.toIsoDate(" "));
+        assertNull(SaleDates.toIsoDate("unknown"));
+        assertNull(SaleDates.toIsoDate("2024-13-01"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.flutter.DataPreprocessingService.service.ingestion;
+
+import com.flutter.DataPreprocessingService.entity.DocumentMetadata;
+import com.flutter.DataPreprocessingService.service.pdf_parse.PdfBufferPool;
+import com.flutter.DataPreprocessingService.service.pdf_parse.PdfPageRange;
+import com.flutter.DataPreprocessingService.service.pdf_parse.PdfParsingService;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upstage 호출 대신 고정 결과를 돌려주는 파서로 파이프라인의 구간 집계와 워커 비정상 종료 처리를 확인한다.
+ */
+class IngestionPipelineServiceTest {
+
+    private static final int PAGES = 10;
+
+    @TempDir
+    Path tempDir;
+
+    private IngestionPipelineService pipeline;
+    private DocumentMetadata document;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path pdf = tempDir.resolve("product.pdf");
+        try (PDDocument source = new PDDocument()) {
+            for (int i = 0; i < PAGES; i++) {
+                source.addPage(new PDPage());
+            }
+            source.save(pdf.toFile());
+        }
+        document = new DocumentMetadata();
+        document.setFilePath(pdf.toString());
+
+        PdfParsingService parser = new PdfParsingService(new PdfBufferPool(4, 64, 1024), null) {
+            @Override
+            public Map<String, Object> analyzeDocumentWithUpstage(PdfPageRange pageRange) {
+                return Map.of("elements", List.of());
+            }
+        };
+        ReflectionTestUtils.setField(parser, "maxMainMemoryMb", 16L);
+
+        pipeline = new IngestionPipelineService(parser);
+        ReflectionTestUtils.setField(pipeline, "parseConcurrency", 2);
+        ReflectionTestUtils.setField(pipeline, "indexConcurrency", 1);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void allRangesAreIndexed() throws IOException {
+        IngestionPipelineService.IngestionResult result = pipeline.run(document, 1, (rangeIndex, parsedResult) -> {
+        });
+
+        assertEquals(PAGES, result.totalRanges());
+        assertEquals(PAGES, result.indexedRanges());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    void failedRangeMakesResultIncomplete() throws IOException {
+        IngestionPipelineService.IngestionResult result = pipeline.run(document, 1, (rangeIndex, parsedResult) -> {
+            if (rangeIndex == 3) {
+                throw new IllegalStateException("벌크 큐 추가 실패");
+            }
+        });
+
+        assertEquals(1, result.failedRanges());
+        assertEquals(PAGES - 1, result.indexedRanges());
+        assertFalse(result.isComplete());
+    }
+
+    @Test
+    void crashedIndexWorkerDoesNotHangPipeline() {
+        IngestionPipelineService.IngestionResult result = assertTimeoutPreemptively(Duration.ofSeconds(20),
+                () -> pipeline.run(document, 1, (rangeIndex, parsedResult) -> {
+                    throw new AssertionError("인덱싱 워커 비정상 종료");
+                }));
+
+        assertEquals(PAGES, result.totalRanges());
+        assertEquals(0, result.indexedRanges());
+        assertFalse(result.isComplete());
+    }
+}
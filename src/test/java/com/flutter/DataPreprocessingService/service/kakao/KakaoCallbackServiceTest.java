@@ -0,0 +1,286 @@
+package com.flutter.DataPreprocessingService.service.kakao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 로컬 HTTP 서버를 카카오 callbackUrl 대신 사용하여 콜백 전송, 재시도, 타임아웃을 확인한다.
+ */
+class KakaoCallbackServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer callbackServer;
+    private ExecutorService callbackExecutor;
+    private String callbackUrl;
+    // 콜백 서버가 요청마다 돌려줄 상태 코드 (비어 있으면 200)
+    private final BlockingQueue<Integer> responseStatuses = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> receivedBodies = new LinkedBlockingQueue<>();
+    private final List<String> receivedContentTypes = new CopyOnWriteArrayList<>();
+    private volatile long responseDelayMs;
+
+    private KakaoCallbackService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        callbackServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        callbackServer.createContext("/callback", exchange -> {
+            receivedContentTypes.add(exchange.getRequestHeaders().getFirst("Content-Type"));
+            receivedBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            sleep(responseDelayMs);
+            Integer status = responseStatuses.poll();
+            byte[] response = "{\"taskId\":\"test\",\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status == null ? 200 : status, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        // 응답을 지연시키는 동안에도 다음 시도를 바로 받도록 요청마다 스레드를 쓴다
+        callbackExecutor = Executors.newCachedThreadPool();
+        callbackServer.setExecutor(callbackExecutor);
+        callbackServer.start();
+        callbackUrl = "http://127.0.0.1:" + callbackServer.getAddress().getPort() + "/callback";
+
+        service = new KakaoCallbackService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "poolSize", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(service, "readTimeoutMs", 500);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 10L);
+        ReflectionTestUtils.setField(service, "deadlineSeconds", 10L);
+        ReflectionTestUtils.setField(service, "answerTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(service, "ackText", "잠시만 기다려주세요.");
+        ReflectionTestUtils.invokeMethod(service, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(service, "close");
+        callbackServer.stop(0);
+        callbackExecutor.shutdownNow();
+    }
+
+    @Test
+    void submitPostsAnswerToCallbackUrl() throws Exception {
+        assertTrue(service.submit(callbackUrl, () -> "해지환급금은 가입 기간에 따라 달라집니다."));
+
+        JsonNode body = objectMapper.readTree(awaitBody());
+        assertEquals("2.0", body.path("version").asText());
+        assertEquals("해지환급금은 가입 기간에 따라 달라집니다.",
+                body.path("template").path("outputs").path(0).path("simpleText").path("text").asText());
+        assertTrue(receivedContentTypes.get(0).startsWith("application/json"));
+        assertEquals(1L, awaitStat("delivered", 1L));
+    }
+
+    @Test
+    void failedAnswerSendsErrorText() throws Exception {
+        assertTrue(service.submit(callbackUrl, () -> {
+            throw new IllegalStateException("LLM 응답 생성 중 오류 발생");
+        }));
+
+        JsonNode body = objectMapper.readTree(awaitBody());
+        assertEquals("오류가 발생했습니다. 다시 시도해주세요.",
+                body.path("template").path("outputs").path(0).path("simpleText").path("text").asText());
+    }
+
+    @Test
+    void slowAnswerSendsErrorTextWithinTimeout() throws Exception {
+        ReflectionTestUtils.setField(service, "answerTimeoutMs", 200L);
+        long start = System.nanoTime();
+        assertTrue(service.submit(callbackUrl, () -> {
+            sleep(3000);
+            return "늦은 답변";
+        }));
+
+        JsonNode body = objectMapper.readTree(awaitBody());
+        assertEquals("오류가 발생했습니다. 다시 시도해주세요.",
+                body.path("template").path("outputs").path(0).path("simpleText").path("text").asText());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "시간 제한 후 바로 오류 안내를 보내야 함");
+        assertEquals(1L, awaitStat("answerTimeouts", 1L));
+    }
+
+    @Test
+    void serverErrorIsRetried() throws Exception {
+        responseStatuses.add(503);
+        responseStatuses.add(500);
+
+        assertTrue(service.deliver(callbackUrl, KakaoCallbackService.simpleTextResponse("답변"), deadlineIn(10)));
+        assertEquals(3, receivedBodies.size());
+        assertEquals(2L, service.stats().get("retries"));
+        assertEquals(1L, service.stats().get("delivered"));
+    }
+
+    @Test
+    void clientErrorIsNotRetried() {
+        responseStatuses.add(400);
+
+        assertFalse(service.deliver(callbackUrl, KakaoCallbackService.simpleTextResponse("답변"), deadlineIn(10)));
+        assertEquals(1, receivedBodies.size());
+        assertEquals(1L, service.stats().get("failed"));
+    }
+
+    @Test
+    void readTimeoutIsRetriedUpToMaxAttempts() {
+        responseDelayMs = 1000;
+
+        assertFalse(service.deliver(callbackUrl, KakaoCallbackService.simpleTextResponse("답변"), deadlineIn(10)));
+        assertEquals(3, receivedBodies.size());
+        assertEquals(2L, service.stats().get("retries"));
+    }
+
+    @Test
+    void expiredDeadlineIsNotSent() {
+        assertFalse(service.deliver(callbackUrl, KakaoCallbackService.simpleTextResponse("답변"), System.nanoTime() - 1));
+        assertTrue(receivedBodies.isEmpty());
+    }
+
+    @Test
+    void submitWithoutCallbackUrlOrWhenDisabledIsRejected() {
+        assertFalse(service.submit(null, () -> "답변"));
+        assertFalse(service.submit(" ", () -> "답변"));
+        assertFalse(service.usesCallback(null));
+
+        ReflectionTestUtils.setField(service, "enabled", false);
+        assertFalse(service.submit(callbackUrl, () -> "답변"));
+        assertFalse(service.usesCallback(callbackUrl));
+    }
+
+    @Test
+    void fullQueueRejectsSubmit() throws Exception {
+        ReflectionTestUtils.invokeMethod(service, "close");
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> blocked = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "답변";
+        };
+
+        assertTrue(service.submit(callbackUrl, blocked));
+        assertTrue(service.submit(callbackUrl, blocked));
+        assertFalse(service.submit(callbackUrl, blocked));
+        assertEquals(1L, service.stats().get("rejected"));
+        assertTrue(service.usesCallback(callbackUrl));
+
+        release.countDown();
+        awaitBody();
+        awaitBody();
+    }
+
+    @Test
+    void fullAnswerQueueSendsBusyText() throws Exception {
+        ReflectionTestUtils.invokeMethod(service, "close");
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "answerTimeoutMs", 100L);
+        ReflectionTestUtils.setField(service, "busyText", "잠시 후 다시 질문해주세요.");
+        ReflectionTestUtils.invokeMethod(service, "init");
+        // 소켓 I/O처럼 인터럽트로 멈추지 않는 답변 생성
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> stuck = () -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // 취소되어도 계속 기다린다
+                }
+            }
+            return "늦은 답변";
+        };
+
+        try {
+            assertTrue(service.submit(callbackUrl, stuck));
+            assertEquals("오류가 발생했습니다. 다시 시도해주세요.", textOf(awaitBody()));
+            assertTrue(service.submit(callbackUrl, stuck));
+            assertEquals("오류가 발생했습니다. 다시 시도해주세요.", textOf(awaitBody()));
+
+            assertTrue(service.submit(callbackUrl, stuck));
+            assertEquals("잠시 후 다시 질문해주세요.", textOf(awaitBody()));
+            assertEquals(1L, awaitStat("answerRejected", 1L));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void busyResponseIsSimpleText() {
+        ReflectionTestUtils.setField(service, "busyText", "잠시 후 다시 질문해주세요.");
+
+        assertEquals(KakaoCallbackService.simpleTextResponse("잠시 후 다시 질문해주세요."), service.busyResponse());
+    }
+
+    @Test
+    void callbackAcknowledgementUsesCallback() {
+        Map<String, Object> acknowledgement = service.callbackAcknowledgement();
+
+        assertEquals(true, acknowledgement.get("useCallback"));
+        assertEquals(Map.of("text", "잠시만 기다려주세요."), acknowledgement.get("data"));
+    }
+
+    private String textOf(String body) throws IOException {
+        return objectMapper.readTree(body).path("template").path("outputs").path(0).path("simpleText").path("text").asText();
+    }
+
+    private String awaitBody() throws InterruptedException {
+        String body = receivedBodies.poll(5, TimeUnit.SECONDS);
+        assertNotNull(body, "콜백 요청이 도착하지 않음");
+        return body;
+    }
+
+    private long awaitStat(String name, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        long value = (long) service.stats().get(name);
+        while (value != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            value = (long) service.stats().get(name);
+        }
+        return value;
+    }
+
+    private static long deadlineIn(long seconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
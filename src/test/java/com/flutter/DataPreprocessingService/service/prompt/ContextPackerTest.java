@@ -0,0 +1,86 @@
+package com.flutter.DataPreprocessingService.service.prompt;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 컨텍스트 구성의 중복 제거와 토큰 예산 처리를 확인한다.
+ */
+class ContextPackerTest {
+
+    private ContextPacker packer;
+
+    @BeforeEach
+    void setUp() {
+        packer = new ContextPacker();
+        ReflectionTestUtils.setField(packer, "maxTokens", 100);
+    }
+
+    @Test
+    void chunkInsideOverBudgetLowerRankedChunkIsKept() {
+        String top = "해지환급금은 가입 기간에 따라 달라집니다.";
+        ChunkHit first = hit("a", "<p>" + top + "</p>");
+        ChunkHit filler = hit("b", "<p>" + "보장 내용 ".repeat(10) + "</p>");
+        ChunkHit containing = hit("c", "<p>" + "약관 설명 ".repeat(20) + top + "</p>");
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(first, filler, containing));
+
+        assertEquals(List.of("a", "b"), packed.packedIds());
+        assertEquals(0, packed.droppedDuplicates());
+        assertEquals(1, packed.droppedOverBudget());
+    }
+
+    @Test
+    void earlierChunkIsReplacedByPackedChunkContainingIt() {
+        ChunkHit overlap = hit("overlap", "<p>보험료 납입 면제</p>");
+        ChunkHit full = hit("full", "<p>보험료 납입 면제 조건은 다음과 같습니다.</p>");
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(overlap, full));
+
+        assertEquals(List.of("full"), packed.packedIds());
+        assertEquals(1, packed.droppedDuplicates());
+        assertEquals("보험료 납입 면제 조건은 다음과 같습니다.", packed.context());
+    }
+
+    @Test
+    void duplicateAndEmptyChunksAreDropped() {
+        ContextPacker.PackedContext packed = packer.pack(List.of(
+                hit("a", "<td>가입 나이</td><td>15세</td>"),
+                hit("b", "<td>가입 나이</td> <td>15세</td>"),
+                hit("c", "<br/>")));
+
+        assertEquals(List.of("a"), packed.packedIds());
+        assertEquals(2, packed.droppedDuplicates());
+    }
+
+    @Test
+    void shorterLowerRankedChunkFillsRemainingBudget() {
+        ContextPacker.PackedContext packed = packer.pack(List.of(
+                hit("a", "가".repeat(60)),
+                hit("b", "나".repeat(60)),
+                hit("c", "다".repeat(20))));
+
+        assertEquals(List.of("a", "c"), packed.packedIds());
+        assertEquals(60 + 2 + 20, packed.usedTokens());
+        assertEquals(1, packed.droppedOverBudget());
+    }
+
+    @Test
+    void firstChunkOverBudgetIsTruncated() {
+        ContextPacker.PackedContext packed = packer.pack(List.of(hit("a", "가".repeat(150)), hit("b", "나".repeat(10))));
+
+        assertEquals(List.of("a"), packed.packedIds());
+        assertEquals(100, packed.usedTokens());
+        assertEquals("가".repeat(100), packed.context());
+    }
+
+    private static ChunkHit hit(String id, String chunk) {
+        return new ChunkHit(id, chunk, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.flutter.DataPreprocessingService.service.prompt;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.indexing.IndexGeneration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 유사한 질문의 답변 재사용과 청크 재색인 통지에 따른 무효화를 확인한다.
+ */
+class SemanticAnswerCacheTest {
+
+    private static final String INDEX = "chunks";
+    private static final Embedding QUESTION = Embedding.of(new float[]{1f, 0f, 0f});
+    // QUESTION과의 코사인 유사도 약 0.995
+    private static final Embedding SIMILAR_QUESTION = Embedding.of(new float[]{1f, 0.1f, 0f});
+    // QUESTION과의 코사인 유사도 약 0.71
+    private static final Embedding OTHER_QUESTION = Embedding.of(new float[]{1f, 1f, 0f});
+    private static final List<String> CHUNKS = List.of("chunk-1", "chunk-2");
+
+    private IndexGeneration indexGeneration;
+    private SemanticAnswerCache cache;
+    private final AtomicInteger generations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        indexGeneration = new IndexGeneration();
+        cache = new SemanticAnswerCache(indexGeneration);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "similarityThreshold", 0.92);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+    }
+
+    @Test
+    void similarQuestionWithSameChunksReusesAnswer() {
+        Map<String, Object> first = cache.get(QUESTION, "암보험", CHUNKS, generate("답변"));
+        Map<String, Object> second = cache.get(SIMILAR_QUESTION, "암보험", List.of("chunk-2", "chunk-1"), generate("다른 답변"));
+
+        assertEquals(first, second);
+        assertEquals(1, generations.get());
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void dissimilarQuestionOrDifferentContextIsGeneratedAgain() {
+        cache.get(QUESTION, "암보험", CHUNKS, generate("답변"));
+
+        cache.get(OTHER_QUESTION, "암보험", CHUNKS, generate("답변"));
+        cache.get(QUESTION, "종신보험", CHUNKS, generate("답변"));
+        cache.get(QUESTION, "암보험", List.of("chunk-1"), generate("답변"));
+
+        assertEquals(4, generations.get());
+    }
+
+    @Test
+    void rewrittenChunkInvalidatesAnswersThatUsedIt() {
+        cache.get(QUESTION, "암보험", CHUNKS, generate("이전 답변"));
+        cache.get(QUESTION, "암보험", List.of("chunk-3"), generate("다른 청크 답변"));
+
+        indexGeneration.documentsWritten(INDEX, List.of("chunk-2"));
+        indexGeneration.advance(INDEX);
+
+        assertEquals(Map.of("answer", "새 답변"), cache.get(QUESTION, "암보험", CHUNKS, generate("새 답변")));
+        assertEquals(Map.of("answer", "다른 청크 답변"), cache.get(QUESTION, "암보험", List.of("chunk-3"), generate("-")));
+        assertEquals(1L, cache.stats().get("invalidations"));
+    }
+
+    @Test
+    void answerGeneratedWhileIndexingIsNotStored() {
+        cache.get(QUESTION, "암보험", CHUNKS, () -> {
+            indexGeneration.documentsWritten(INDEX, List.of("chunk-9"));
+            return generate("색인 중 답변").get();
+        });
+        cache.get(QUESTION, "암보험", CHUNKS, generate("답변"));
+
+        assertEquals(2, generations.get());
+        assertEquals(1, cache.stats().get("entries"));
+    }
+
+    @Test
+    void unrefreshedChunkIsCachedOnlyAfterGenerationAdvances() {
+        indexGeneration.documentsWritten(INDEX, List.of("chunk-1"));
+
+        cache.get(QUESTION, "암보험", CHUNKS, generate("refresh 전 답변"));
+        assertEquals(0, cache.stats().get("entries"));
+
+        indexGeneration.advance(INDEX);
+        cache.get(QUESTION, "암보험", CHUNKS, generate("refresh 후 답변"));
+        assertEquals(Map.of("answer", "refresh 후 답변"), cache.get(QUESTION, "암보험", CHUNKS, generate("-")));
+        assertEquals(2, generations.get());
+    }
+
+    private Supplier<Map<String, Object>> generate(String answer) {
+        return () -> {
+            generations.incrementAndGet();
+            return Map.of("answer", answer);
+        };
+    }
+}
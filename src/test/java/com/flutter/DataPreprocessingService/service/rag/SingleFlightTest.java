@@ -0,0 +1,138 @@
+package com.flutter.DataPreprocessingService.service.rag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 동시에 들어온 같은 질문이 한 번만 계산되고 결과와 예외가 함께 전달되는지 확인한다.
+ */
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 4;
+
+    private SingleFlight singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "enabled", true);
+        ReflectionTestUtils.setField(singleFlight, "waitTimeoutSeconds", 5L);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentSameQuestionIsComputedOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        List<String> answer = List.of("해지환급금 안내");
+
+        List<Future<List<String>>> results = startConcurrently(" 해지  환급금 ", () -> {
+            computations.incrementAndGet();
+            await(release);
+            return answer;
+        });
+        awaitStat("coalesced", FOLLOWERS);
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            assertSame(answer, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1L, singleFlight.stats().get("executions"));
+        assertEquals(0, singleFlight.stats().get("inFlight"));
+    }
+
+    @Test
+    void failureIsPropagatedToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("LLM 응답 생성 중 오류 발생");
+
+        List<Future<List<String>>> results = startConcurrently("해지 환급금", () -> {
+            await(release);
+            throw failure;
+        });
+        awaitStat("coalesced", FOLLOWERS);
+        release.countDown();
+
+        for (Future<List<String>> result : results) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(1L, singleFlight.stats().get("failures"));
+        assertEquals(0, singleFlight.stats().get("inFlight"));
+    }
+
+    @Test
+    void differentScopeOrProductIsNotCoalesced() {
+        AtomicInteger computations = new AtomicInteger();
+        Supplier<Integer> computation = computations::incrementAndGet;
+
+        singleFlight.execute("search", "해지환급금", "암보험", computation);
+        singleFlight.execute("rerank", "해지환급금", "암보험", computation);
+        singleFlight.execute("search", "해지환급금", "종신보험", computation);
+
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    void finishedQuestionIsComputedAgain() {
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("search", "해지환급금", null, computations::incrementAndGet));
+        assertEquals(2, singleFlight.execute("search", "해지환급금", null, computations::incrementAndGet));
+        assertEquals(0L, singleFlight.stats().get("coalesced"));
+    }
+
+    /**
+     * 먼저 한 요청이 계산을 시작한 뒤 나머지 요청을 정규화하면 같아지는 검색어로 보낸다.
+     */
+    private List<Future<List<String>>> startConcurrently(String query, Supplier<List<String>> computation) throws InterruptedException {
+        List<Future<List<String>>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("search", query, "암보험", computation)));
+        awaitStat("inFlight", 1);
+        for (int i = 0; i < FOLLOWERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("search", "해지 환급금", "암보험", computation)));
+        }
+        return results;
+    }
+
+    private void awaitStat(String name, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (((Number) singleFlight.stats().get(name)).longValue() != expected) {
+            assertTrue(System.currentTimeMillis() < deadline, name + " 값이 " + expected + "이(가) 되지 않음");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
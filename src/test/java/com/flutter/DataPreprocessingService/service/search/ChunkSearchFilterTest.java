@@ -0,0 +1,50 @@
+package com.flutter.DataPreprocessingService.service.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import com.flutter.DataPreprocessingService.dto.search.ChunkSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 청크 검색 필터 구성, 특히 판매일 조건이 시작일/종료일 누락을 같은 방식으로 다루는지 확인한다.
+ */
+class ChunkSearchFilterTest {
+
+    @Test
+    void onSaleAtAcceptsMissingStartAndEndDates() {
+        ChunkSearchRequest request = ChunkSearchRequest.builder()
+                .query("해지환급금")
+                .onSaleAt(LocalDate.of(2024, 3, 1))
+                .build();
+
+        List<Query> filters = ElasticsearchDocumentSearchService.filtersOf(request);
+
+        assertEquals(2, filters.size());
+        assertRangeOrMissing(filters.get(0), "saleStartDate", true);
+        assertRangeOrMissing(filters.get(1), "saleEndDate", false);
+    }
+
+    @Test
+    void nullConditionsAreNotApplied() {
+        assertTrue(ElasticsearchDocumentSearchService.filtersOf(ChunkSearchRequest.builder().query("해지환급금").build()).isEmpty());
+    }
+
+    private static void assertRangeOrMissing(Query filter, String field, boolean upperBound) {
+        BoolQuery bool = filter.bool();
+        assertEquals(2, bool.should().size());
+
+        RangeQuery range = bool.should().get(0).range();
+        assertEquals(field, range.field());
+        assertEquals("2024-03-01", (upperBound ? range.lte() : range.gte()).to(String.class));
+
+        List<Query> missing = bool.should().get(1).bool().mustNot();
+        assertEquals(field, missing.get(0).exists().field());
+    }
+}
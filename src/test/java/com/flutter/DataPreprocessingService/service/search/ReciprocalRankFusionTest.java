@@ -0,0 +1,77 @@
+package com.flutter.DataPreprocessingService.service.search;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 하이브리드 검색의 가중 Reciprocal Rank Fusion 점수와 순서를 확인한다.
+ */
+class ReciprocalRankFusionTest {
+
+    private static final double DELTA = 1e-9;
+
+    private ElasticsearchDocumentSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ElasticsearchDocumentSearchService(null, null, null, null);
+        ReflectionTestUtils.setField(service, "rrfK", 60);
+        ReflectionTestUtils.setField(service, "keywordWeight", 1.0);
+        ReflectionTestUtils.setField(service, "vectorWeight", 1.0);
+    }
+
+    @Test
+    void chunkFoundByBothSearchesOutranksSingleSearchTopHits() {
+        List<ChunkHit> fused = service.fuseWithReciprocalRank(10,
+                List.of(hit("keyword-only"), hit("both")),
+                List.of(hit("vector-only"), hit("both")));
+
+        assertEquals(List.of("both", "keyword-only", "vector-only"), idsOf(fused));
+        assertEquals(2.0 / 62, fused.get(0).score(), DELTA);
+        assertEquals(1.0 / 61, fused.get(1).score(), DELTA);
+    }
+
+    @Test
+    void weightsScaleEachSearch() {
+        ReflectionTestUtils.setField(service, "vectorWeight", 2.0);
+
+        List<ChunkHit> fused = service.fuseWithReciprocalRank(10, List.of(hit("a"), hit("b")), List.of(hit("b"), hit("c")));
+
+        assertEquals(List.of("b", "c", "a"), idsOf(fused));
+        assertEquals(1.0 / 62 + 2.0 / 61, fused.get(0).score(), DELTA);
+        assertEquals(2.0 / 62, fused.get(1).score(), DELTA);
+        assertEquals(1.0 / 61, fused.get(2).score(), DELTA);
+    }
+
+    @Test
+    void tiesKeepKeywordOrderAndResultIsLimitedToTopK() {
+        List<ChunkHit> fused = service.fuseWithReciprocalRank(3,
+                List.of(hit("k1"), hit("k2"), hit("k3")),
+                List.of(hit("v1"), hit("v2"), hit("v3")));
+
+        assertEquals(List.of("k1", "v1", "k2"), idsOf(fused));
+    }
+
+    @Test
+    void emptyVectorResultKeepsKeywordRanking() {
+        List<ChunkHit> fused = service.fuseWithReciprocalRank(10, List.of(hit("a"), hit("b")), List.of());
+
+        assertEquals(List.of("a", "b"), idsOf(fused));
+    }
+
+    private static Hit<ChunkHit> hit(String id) {
+        ChunkHit source = new ChunkHit(null, "청크 " + id, null, null, null, null, null, null, null, null);
+        return Hit.of(h -> h.index("chunks").id(id).source(source));
+    }
+
+    private static List<String> idsOf(List<ChunkHit> hits) {
+        return hits.stream().map(ChunkHit::id).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.flutter.DataPreprocessingService.service.search;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.indexing.IndexGeneration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 검색 결과 캐시의 적중, 인덱스 세대 변경 시 무효화, LRU 제거를 확인한다.
+ */
+class SearchResultCacheTest {
+
+    private IndexGeneration indexGeneration;
+    private SearchResultCache cache;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        indexGeneration = new IndexGeneration();
+        cache = new SearchResultCache(indexGeneration);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 64L);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+    }
+
+    @Test
+    void normalizedRepeatQueryIsServedFromCache() {
+        List<ChunkHit> first = cache.get("hybrid", "해지  환급금 ", "암보험", 5, search("a"));
+        List<ChunkHit> second = cache.get("hybrid", "해지 환급금", "암보험", 5, search("b"));
+
+        assertEquals(first, second);
+        assertEquals(1, searches.get());
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void scopeProductAndTopKArePartOfTheKey() {
+        cache.get("hybrid", "해지환급금", "암보험", 5, search("a"));
+        cache.get("keyword", "해지환급금", "암보험", 5, search("a"));
+        cache.get("hybrid", "해지환급금", "종신보험", 5, search("a"));
+        cache.get("hybrid", "해지환급금", "암보험", 10, search("a"));
+
+        assertEquals(4, searches.get());
+    }
+
+    @Test
+    void generationAdvanceInvalidatesCachedResults() {
+        cache.get("hybrid", "해지환급금", "암보험", 5, search("old"));
+        indexGeneration.advance("chunks");
+
+        List<ChunkHit> results = cache.get("hybrid", "해지환급금", "암보험", 5, search("new"));
+
+        assertEquals("new", results.get(0).id());
+        assertEquals(2, searches.get());
+        assertEquals(1L, cache.stats().get("invalidations"));
+        assertEquals(1, cache.stats().get("entries"));
+    }
+
+    @Test
+    void resultOfSearchRacingWithIndexingIsNotReused() {
+        cache.get("hybrid", "해지환급금", "암보험", 5, () -> {
+            // 검색 도중 벌크 세션이 끝나 세대가 바뀐 경우
+            indexGeneration.advance("chunks");
+            return search("stale").get();
+        });
+
+        List<ChunkHit> results = cache.get("hybrid", "해지환급금", "암보험", 5, search("fresh"));
+
+        assertEquals("fresh", results.get(0).id());
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void emptyResultIsNotCached() {
+        cache.get("hybrid", "해지환급금", null, 5, () -> {
+            searches.incrementAndGet();
+            return List.of();
+        });
+        cache.get("hybrid", "해지환급금", null, 5, search("a"));
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        cache.get("hybrid", "q1", null, 5, search("1"));
+        cache.get("hybrid", "q2", null, 5, search("2"));
+        cache.get("hybrid", "q1", null, 5, search("1"));
+        cache.get("hybrid", "q3", null, 5, search("3"));
+
+        cache.get("hybrid", "q1", null, 5, search("1"));
+        assertEquals(3, searches.get());
+        cache.get("hybrid", "q2", null, 5, search("2"));
+        assertEquals(4, searches.get());
+        assertEquals(2L, cache.stats().get("evictions"));
+    }
+
+    private Supplier<List<ChunkHit>> search(String id) {
+        return () -> {
+            searches.incrementAndGet();
+            return List.of(new ChunkHit(id, "청크 " + id, null, null, null, null, null, null, null, 1.0));
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * int8 양자화 행과의 내적이 float 내적과 양자화 오차 범위 안에서 일치하는지 확인한다.
+ */
+class QuantizedMatrixTest {
+
+    private final Random random = new Random(11);
+
+    @Test
+    void dotMatchesFloatDotWithinQuantizationError() {
+        // 벡터 레인 수의 배수가 아닌 차원으로 나머지 원소 처리까지 확인한다
+        for (int dimensions : new int[]{3, 17, 385}) {
+            float[][] vectors = new float[50][];
+            for (int row = 0; row < vectors.length; row++) {
+                vectors[row] = randomVector(dimensions);
+            }
+            QuantizedMatrix matrix = QuantizedMatrix.quantize(vectors);
+            float[] query = randomVector(dimensions);
+            float querySum = QuantizedMatrix.sum(query);
+
+            for (int row = 0; row < vectors.length; row++) {
+                float expected = VectorMath.dot(query, vectors[row]);
+                // 원소마다 오차는 최대 scale / 2
+                double bound = absoluteSum(query) * rangeOf(vectors[row]) / 255 / 2 + 1e-4;
+                float actual = matrix.dot(query, querySum, row);
+                assertTrue(Math.abs(expected - actual) <= bound,
+                        "차원 " + dimensions + ", 행 " + row + ": " + expected + " vs " + actual + " (허용 " + bound + ")");
+            }
+        }
+    }
+
+    @Test
+    void constantRowIsExact() {
+        float[] constant = new float[16];
+        Arrays.fill(constant, 0.25f);
+        QuantizedMatrix matrix = QuantizedMatrix.quantize(new float[][]{constant});
+        float[] query = randomVector(16);
+
+        assertEquals(VectorMath.dot(query, constant), matrix.dot(query, QuantizedMatrix.sum(query), 0), 1e-5f);
+    }
+
+    @Test
+    void sizeIsAboutAQuarterOfFloatRows() {
+        QuantizedMatrix matrix = QuantizedMatrix.quantize(new float[][]{randomVector(384), randomVector(384)});
+
+        assertEquals(2, matrix.rows());
+        assertEquals(384, matrix.dimensions());
+        assertEquals(2 * 384 + 2 * 2 * Float.BYTES, matrix.sizeBytes());
+    }
+
+    @Test
+    void mismatchedDimensionsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> QuantizedMatrix.quantize(new float[][]{randomVector(4), randomVector(5)}));
+    }
+
+    private float[] randomVector(int dimensions) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double absoluteSum(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += Math.abs(value);
+        }
+        return sum;
+    }
+
+    private static double rangeOf(float[] vector) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float value : vector) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return max - min;
+    }
+}
@@ -0,0 +1,74 @@
+package com.flutter.DataPreprocessingService.service.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 최소 힙 기반 상위 k개 선택이 전체 정렬과 같은 순서를 내는지 확인한다.
+ */
+class TopKCollectorTest {
+
+    @Test
+    void matchesFullSortIncludingTies() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + random.nextInt(200);
+            int k = 1 + random.nextInt(20);
+            // 점수 종류를 적게 만들어 동점이 자주 나오게 한다
+            float[] scores = new float[n];
+            for (int i = 0; i < n; i++) {
+                scores[i] = random.nextInt(10) / 10f;
+            }
+
+            TopKCollector collector = new TopKCollector(k);
+            for (int i = 0; i < n; i++) {
+                collector.offer(i, scores[i]);
+            }
+
+            List<ScoredCandidate> expected = IntStream.range(0, n)
+                    .mapToObj(i -> new ScoredCandidate(i, scores[i]))
+                    .sorted(Comparator.comparing(ScoredCandidate::score).reversed()
+                            .thenComparing(ScoredCandidate::index))
+                    .limit(k)
+                    .toList();
+            assertEquals(expected, collector.drain());
+        }
+    }
+
+    @Test
+    void tiesKeepLowerIndexRegardlessOfOfferOrder() {
+        TopKCollector collector = new TopKCollector(2);
+        collector.offer(3, 0.5f);
+        collector.offer(2, 0.5f);
+        collector.offer(1, 0.5f);
+        collector.offer(0, 0.1f);
+
+        assertEquals(List.of(new ScoredCandidate(1, 0.5f), new ScoredCandidate(2, 0.5f)), collector.drain());
+    }
+
+    @Test
+    void fewerCandidatesThanKAreAllReturned() {
+        TopKCollector collector = new TopKCollector(5);
+        collector.offer(0, 0.2f);
+        collector.offer(1, 0.9f);
+
+        assertEquals(List.of(new ScoredCandidate(1, 0.9f), new ScoredCandidate(0, 0.2f)), collector.drain());
+        assertEquals(0, collector.size());
+        assertTrue(collector.drain().isEmpty());
+    }
+
+    @Test
+    void zeroKCollectsNothing() {
+        TopKCollector collector = new TopKCollector(0);
+        collector.offer(0, 1f);
+
+        assertTrue(collector.drain().isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import com.flutter.DataPreprocessingService.service.similarity.VectorMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HNSW 인덱스의 검색 정확도, 저장/로드, 같은 ID 대체와 삭제를 확인한다.
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int VECTORS = 2000;
+    private static final int K = 10;
+    private static final int EF_SEARCH = 100;
+
+    private final Random random = new Random(42);
+    private List<Embedding> vectors;
+    private HnswIndex index;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        vectors = new ArrayList<>();
+        index = new HnswIndex(16, 100);
+        for (int i = 0; i < VECTORS; i++) {
+            Embedding vector = randomEmbedding();
+            vectors.add(vector);
+            index.add(idOf(i), vector);
+        }
+    }
+
+    @Test
+    void recallAgainstBruteForce() {
+        int queries = 50;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            Embedding query = randomEmbedding();
+            Set<String> expected = bruteForce(query, K);
+            found += (int) index.search(query, K, EF_SEARCH).stream()
+                    .filter(hit -> expected.contains(hit.id()))
+                    .count();
+        }
+        double recall = (double) found / (queries * K);
+        assertTrue(recall >= 0.9, "recall@" + K + " = " + recall);
+    }
+
+    @Test
+    void savedIndexReturnsSameResultsAfterLoad() throws Exception {
+        index.remove(idOf(0));
+        Path file = tempDir.resolve("hnsw.bin");
+        index.save(file);
+
+        HnswIndex loaded = HnswIndex.load(file);
+
+        assertEquals(index.size(), loaded.size());
+        assertEquals(index.deletedCount(), loaded.deletedCount());
+        assertEquals(index.dimensions(), loaded.dimensions());
+        assertEquals(index.maxLevel(), loaded.maxLevel());
+        for (int q = 0; q < 10; q++) {
+            Embedding query = randomEmbedding();
+            assertEquals(index.search(query, K, EF_SEARCH), loaded.search(query, K, EF_SEARCH));
+        }
+    }
+
+    @Test
+    void sameIdWithNewVectorReplacesPreviousVector() {
+        Embedding replacement = randomEmbedding();
+
+        assertTrue(index.add(idOf(1), replacement));
+        assertFalse(index.add(idOf(1), replacement));
+
+        assertEquals(VECTORS, index.size());
+        assertEquals(1, index.deletedCount());
+        List<VectorHit> hits = index.search(replacement, K, EF_SEARCH);
+        assertEquals(idOf(1), hits.get(0).id());
+        assertEquals(1, hits.stream().filter(hit -> hit.id().equals(idOf(1))).count());
+        assertTrue(index.search(vectors.get(1), K, EF_SEARCH).stream()
+                .noneMatch(hit -> hit.id().equals(idOf(1)) && hit.score() > 0.999f));
+    }
+
+    @Test
+    void removedIdIsExcludedFromSearchAndCanBeAddedAgain() throws Exception {
+        Embedding removed = vectors.get(2);
+
+        assertTrue(index.remove(idOf(2)));
+        assertFalse(index.remove(idOf(2)));
+        assertEquals(VECTORS - 1, index.size());
+        assertTrue(index.search(removed, K, EF_SEARCH).stream().noneMatch(hit -> hit.id().equals(idOf(2))));
+
+        Path file = tempDir.resolve("hnsw.bin");
+        index.save(file);
+        HnswIndex loaded = HnswIndex.load(file);
+        assertTrue(loaded.search(removed, K, EF_SEARCH).stream().noneMatch(hit -> hit.id().equals(idOf(2))));
+
+        assertTrue(loaded.add(idOf(2), removed));
+        assertEquals(idOf(2), loaded.search(removed, K, EF_SEARCH).get(0).id());
+    }
+
+    private Set<String> bruteForce(Embedding query, int k) {
+        float[] normalized = query.normalized();
+        Set<String> ids = new HashSet<>();
+        IntStream.range(0, vectors.size()).boxed()
+                .sorted(Comparator.comparingDouble(i -> -VectorMath.dot(normalized, vectors.get(i).normalized())))
+                .limit(k)
+                .forEach(i -> ids.add(idOf(i)));
+        return ids;
+    }
+
+    private Embedding randomEmbedding() {
+        float[] values = new float[DIMENSIONS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) random.nextGaussian();
+        }
+        return Embedding.of(values);
+    }
+
+    private static String idOf(int i) {
+        return "chunk-" + i;
+    }
+}
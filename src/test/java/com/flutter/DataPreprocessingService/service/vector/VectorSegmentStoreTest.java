@@ -0,0 +1,88 @@
+package com.flutter.DataPreprocessingService.service.vector;
+
+import com.flutter.DataPreprocessingService.dto.search.ChunkHit;
+import com.flutter.DataPreprocessingService.service.embedding.Embedding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 벡터 세그먼트 저장, 메모리 매핑 로드, 청크 ID 조회와 전수 검색을 확인한다.
+ */
+class VectorSegmentStoreTest {
+
+    private static final String FILE_NAME = "암보험_약관.pdf";
+    private static final String PRODUCT_NAME = "암보험";
+
+    @TempDir
+    Path segmentDir;
+
+    private VectorSegmentStore store;
+    private List<Embedding> embeddings;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+        embeddings = List.of(
+                Embedding.of(new float[]{1f, 0f, 0f}),
+                Embedding.of(new float[]{0f, 3f, 4f}),
+                Embedding.of(new float[]{1f, 1f, 0f}));
+        // 세그먼트는 ID 순으로 정렬해 저장해야 하므로 일부러 순서를 섞어 넘긴다
+        List<VectorSegment.Row> rows = new ArrayList<>();
+        for (int i = embeddings.size() - 1; i >= 0; i--) {
+            rows.add(store.rowOf("chunk-" + i, embeddings.get(i), Map.of(
+                    "chunk", "청크 " + i,
+                    "productName", PRODUCT_NAME,
+                    "embedding", embeddings.get(i).values())));
+        }
+        store.writeDocumentSegment(FILE_NAME, PRODUCT_NAME, rows);
+    }
+
+    @Test
+    void findEmbeddingReturnsStoredUnitVector() {
+        for (int i = 0; i < embeddings.size(); i++) {
+            assertArrayEquals(embeddings.get(i).normalized(),
+                    store.findEmbedding(FILE_NAME, "chunk-" + i).orElseThrow().values());
+        }
+        assertTrue(store.findEmbedding(FILE_NAME, "chunk-9").isEmpty());
+        assertTrue(store.findEmbedding("다른_문서.pdf", "chunk-0").isEmpty());
+    }
+
+    @Test
+    void segmentIsReadAgainAfterRestart() {
+        VectorSegmentStore reloaded = newStore();
+
+        assertArrayEquals(embeddings.get(1).normalized(),
+                reloaded.findEmbedding(FILE_NAME, "chunk-1").orElseThrow().values());
+        assertEquals(3L, reloaded.stats().get("rows"));
+    }
+
+    @Test
+    void searchReturnsNearestChunksWithMetadata() {
+        List<ChunkHit> hits = store.search(Embedding.of(new float[]{0f, 0.6f, 0.8f}), PRODUCT_NAME, 2);
+
+        assertEquals(List.of("chunk-1", "chunk-2"), hits.stream().map(ChunkHit::id).toList());
+        assertEquals("청크 1", hits.get(0).chunk());
+        assertEquals(PRODUCT_NAME, hits.get(0).productName());
+        assertEquals(1.0, hits.get(0).score(), 1e-6);
+        assertTrue(store.search(Embedding.of(new float[]{1f, 0f, 0f}), "다른 상품", 2).isEmpty());
+    }
+
+    private VectorSegmentStore newStore() {
+        VectorSegmentStore newStore = new VectorSegmentStore();
+        ReflectionTestUtils.setField(newStore, "enabled", true);
+        ReflectionTestUtils.setField(newStore, "segmentDir", segmentDir.toString());
+        ReflectionTestUtils.invokeMethod(newStore, "load");
+        return newStore;
+    }
+}